@@ -0,0 +1,117 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workflowservices;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * Tests that {@link LocalWorkflowBackend#borrow(com.google.common.cache.Cache, URI, LocalWorkflowBackendPool.Loader,
+ * boolean, boolean)} loads a callee workflow only once, even if the cache evicts its pool right away.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class LocalWorkflowBackendCacheTest {
+
+    private static final URI CALLEE = URI.create("file:/tmp/callee");
+
+    private final AtomicInteger m_loads = new AtomicInteger();
+
+    private LocalWorkflowBackendPool.Loader loader(final long estimatedHeapSize) {
+        return primary -> {
+            m_loads.incrementAndGet();
+            final var backend = Mockito.mock(LocalWorkflowBackend.class);
+            when(backend.estimateHeapSize()).thenReturn(estimatedHeapSize);
+            return backend;
+        };
+    }
+
+    @Test
+    void testZeroMaxSizeCachesOneCallee() throws Exception {
+        final var cache = LocalWorkflowBackend.createCache(0, 0, 0);
+
+        assertThat(LocalWorkflowBackend.borrow(cache, CALLEE, loader(1024), false, true)).isNotNull();
+        assertThat(m_loads).hasValue(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testCalleeOutweighingCacheIsLoadedOnce() throws Exception {
+        // 1 MB limit, but the callee is estimated at 100 MB
+        final var cache = LocalWorkflowBackend.createCache(5, 60, 1);
+
+        final var backend = LocalWorkflowBackend.borrow(cache, CALLEE, loader(100L << 20), false, true);
+        assertThat(backend).isNotNull();
+        assertThat(m_loads).hasValue(1);
+        cache.cleanUp();
+        assertThat(cache.size()).isZero();
+
+        // the next call loads the callee again, once
+        assertThat(LocalWorkflowBackend.borrow(cache, CALLEE, loader(100L << 20), false, false)).isNotNull();
+        assertThat(m_loads).hasValue(2);
+    }
+
+    @Test
+    void testEvictedPoolFallsBackToUncachedInstance() throws Exception {
+        final var cache = LocalWorkflowBackend.createCache(5, 60, 0);
+        final var first = LocalWorkflowBackend.borrow(cache, CALLEE, loader(1024), false, true);
+        assertThat(first).isNotNull();
+        final var pool = cache.getIfPresent(CALLEE);
+        pool.giveBack(first);
+
+        // the pool is still found in the cache, but has been evicted before an instance could be borrowed
+        pool.invalidate();
+        final var second = LocalWorkflowBackend.borrow(cache, CALLEE, loader(1024), false, true);
+        assertThat(second).isNotNull().isNotSameAs(first);
+        assertThat(m_loads).hasValue(2);
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workflowservices.connection.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests {@link ChunkedResourceTransfer} against a local HTTP server that stands in for a remote executor.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class ChunkedResourceTransferTest {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final byte[] CONTENT = new byte[10 * CHUNK_SIZE + 123];
+
+    static {
+        new Random(42).nextBytes(CONTENT);
+    }
+
+    private static final BackoffPolicy NO_DELAY = new BackoffPolicy(1, 1, 3);
+
+    @TempDir
+    Path m_tempDir;
+
+    private HttpServer m_server;
+
+    private ExecutorService m_serverExecutor;
+
+    private final HttpClient m_client = HttpClient.newHttpClient();
+
+    private volatile boolean m_rangesSupported = true;
+
+    /** The number of range requests that fail with a server error before the server responds properly. */
+    private final AtomicInteger m_failingRangeRequests = new AtomicInteger();
+
+    /** The number of responses to GET requests whose connection is closed in the middle of the body. */
+    private final AtomicInteger m_brokenResponses = new AtomicInteger();
+
+    private final AtomicInteger m_getRequests = new AtomicInteger();
+
+    private final Map<Integer, byte[]> m_uploadedParts = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        m_server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        m_serverExecutor = Executors.newFixedThreadPool(8);
+        m_server.setExecutor(m_serverExecutor);
+        m_server.createContext("/resource", this::serveResource);
+        m_server.createContext("/missing", exchange -> {
+            if ("GET".equals(exchange.getRequestMethod())) {
+                m_getRequests.incrementAndGet();
+            }
+            respond(exchange, 404, new byte[0]);
+        });
+        m_server.createContext("/part/", exchange -> {
+            final var path = exchange.getRequestURI().getPath();
+            final var partNumber = Integer.parseInt(path.substring(path.lastIndexOf('/') + 1));
+            m_uploadedParts.put(partNumber, exchange.getRequestBody().readAllBytes());
+            respond(exchange, 200, ("part-" + partNumber).getBytes());
+        });
+        m_server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        m_server.stop(0);
+        m_serverExecutor.shutdownNow();
+    }
+
+    private void serveResource(final HttpExchange exchange) throws IOException {
+        if (m_rangesSupported) {
+            exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+        }
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Content-Length", Integer.toString(CONTENT.length));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        m_getRequests.incrementAndGet();
+        final var range = exchange.getRequestHeaders().getFirst("Range");
+        if (!m_rangesSupported || range == null) {
+            respondOrBreak(exchange, 200, CONTENT);
+        } else if (m_failingRangeRequests.getAndDecrement() > 0) {
+            respond(exchange, 503, new byte[0]);
+        } else {
+            final var bounds = range.substring("bytes=".length()).split("-");
+            final var start = Integer.parseInt(bounds[0]);
+            final var end = Integer.parseInt(bounds[1]);
+            final var body = new byte[end - start + 1];
+            System.arraycopy(CONTENT, start, body, 0, body.length);
+            respondOrBreak(exchange, 206, body);
+        }
+    }
+
+    private void respondOrBreak(final HttpExchange exchange, final int status, final byte[] body) throws IOException {
+        if (m_brokenResponses.getAndDecrement() <= 0) {
+            respond(exchange, status, body);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        final var out = exchange.getResponseBody();
+        out.write(body, 0, body.length / 2);
+        out.flush();
+        // closes the connection since fewer bytes than announced have been written
+        exchange.close();
+    }
+
+    private static void respond(final HttpExchange exchange, final int status, final byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (var out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private URI uri(final String path) {
+        return URI.create("http://" + m_server.getAddress().getHostString() + ":" + m_server.getAddress().getPort()
+            + path);
+    }
+
+    private ChunkedResourceTransfer transfer() {
+        return new ChunkedResourceTransfer(m_client, NO_DELAY, 4, CHUNK_SIZE);
+    }
+
+    @Test
+    void testDownloadInRanges() throws Exception {
+        final var target = m_tempDir.resolve("download");
+        transfer().download(uri("/resource"), Map.of(), target);
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(CONTENT);
+        assertThat(m_getRequests).hasValue(11);
+    }
+
+    @Test
+    void testDownloadRetriesFailedChunks() throws Exception {
+        m_failingRangeRequests.set(3);
+        final var target = m_tempDir.resolve("download");
+        transfer().download(uri("/resource"), Map.of(), target);
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(CONTENT);
+        assertThat(m_getRequests).hasValue(14);
+    }
+
+    @Test
+    void testDownloadRetriesChunksWithBrokenConnection() throws Exception {
+        m_brokenResponses.set(2);
+        final var target = m_tempDir.resolve("download");
+        transfer().download(uri("/resource"), Map.of(), target);
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(CONTENT);
+        assertThat(m_getRequests).hasValue(13);
+    }
+
+    @Test
+    void testDownloadRetriesSingleRequestWithBrokenConnection() throws Exception {
+        m_rangesSupported = false;
+        m_brokenResponses.set(1);
+        final var target = m_tempDir.resolve("download");
+        transfer().download(uri("/resource"), Map.of(), target);
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(CONTENT);
+        assertThat(m_getRequests).hasValue(2);
+    }
+
+    @Test
+    void testDownloadWithoutRangeSupport() throws Exception {
+        m_rangesSupported = false;
+        final var target = m_tempDir.resolve("download");
+        transfer().download(uri("/resource"), Map.of(), target);
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(CONTENT);
+        assertThat(m_getRequests).hasValue(1);
+    }
+
+    @Test
+    void testClientErrorsAreNotRetried() {
+        final var target = m_tempDir.resolve("download");
+        assertThatThrownBy(() -> transfer().download(uri("/missing"), Map.of(), target))
+            .isInstanceOf(IOException.class).hasMessageContaining("404");
+        assertThat(m_getRequests).hasValue(1);
+    }
+
+    @Test
+    void testUploadInParts() throws Exception {
+        final var source = m_tempDir.resolve("upload");
+        Files.write(source, CONTENT);
+
+        final var responses = transfer().upload(source,
+            (partNumber, offset, length) -> HttpRequest.newBuilder(uri("/part/" + partNumber)));
+
+        assertThat(responses).extracting(HttpResponse::body).containsExactly("part-1", "part-2", "part-3", "part-4",
+            "part-5", "part-6", "part-7", "part-8", "part-9", "part-10", "part-11");
+        final var uploaded = new ByteArrayOutputStream();
+        for (var partNumber = 1; partNumber <= m_uploadedParts.size(); partNumber++) {
+            uploaded.write(m_uploadedParts.get(partNumber));
+        }
+        assertThat(uploaded.toByteArray()).isEqualTo(CONTENT);
+    }
+}
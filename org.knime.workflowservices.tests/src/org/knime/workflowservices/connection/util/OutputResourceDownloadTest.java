@@ -0,0 +1,135 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workflowservices.connection.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.knime.workflowservices.IWorkflowBackend;
+import org.knime.workflowservices.knime.util.CallWorkflowPayloadStore;
+import org.mockito.Mockito;
+
+/**
+ * Tests {@link OutputResourceDownload}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class OutputResourceDownloadTest {
+
+    @Test
+    void testDownloadsAllResourcesInOrder() throws IOException {
+        final var backend = Mockito.mock(IWorkflowBackend.class);
+        when(backend.openOutputResource(anyString()))
+            .thenAnswer(i -> new ByteArrayInputStream(i.<String> getArgument(0).getBytes(StandardCharsets.UTF_8)));
+        final var outstanding = CallWorkflowPayloadStore.getStatistics().outstandingFiles();
+
+        final var names = List.of("output-3", "output-1", "output-2");
+        final Map<String, InputStream> streams = OutputResourceDownload.download(backend, names);
+        assertThat(streams).containsOnlyKeys(names);
+        assertThat(streams.keySet()).containsExactlyElementsOf(names);
+        for (final var name : names) {
+            try (var in = streams.get(name)) {
+                assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(name);
+            }
+        }
+        assertThat(CallWorkflowPayloadStore.getStatistics().outstandingFiles()).isEqualTo(outstanding);
+    }
+
+    @Test
+    void testFailedDownloadDeletesOtherDownloads() throws IOException {
+        final var backend = Mockito.mock(IWorkflowBackend.class);
+        when(backend.openOutputResource("ok")).thenAnswer(i -> new ByteArrayInputStream(new byte[1024]));
+        when(backend.openOutputResource("missing")).thenThrow(new IOException("No output with identifier missing"));
+        final var outstanding = CallWorkflowPayloadStore.getStatistics().outstandingFiles();
+
+        assertThatThrownBy(() -> OutputResourceDownload.download(backend, List.of("ok", "missing")))
+            .isInstanceOf(IOException.class).hasMessageContaining("missing");
+        assertThat(CallWorkflowPayloadStore.getStatistics().outstandingFiles()).isEqualTo(outstanding);
+    }
+
+    @Test
+    void testOpensResourcesLazily() throws IOException {
+        final var backend = Mockito.mock(IWorkflowBackend.class);
+        when(backend.openOutputResource(anyString()))
+            .thenAnswer(i -> new ByteArrayInputStream(i.<String> getArgument(0).getBytes(StandardCharsets.UTF_8)));
+
+        final var names = List.of("output-1", "output-2");
+        final Map<String, InputStream> streams = OutputResourceDownload.openLazily(backend, names);
+        assertThat(streams.keySet()).containsExactlyElementsOf(names);
+        Mockito.verify(backend, Mockito.never()).openOutputResource(anyString());
+
+        try (var in = streams.get("output-1")) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("output-1");
+        }
+        // the second resource is opened only once the first one has been read and closed
+        Mockito.verify(backend).openOutputResource("output-1");
+        Mockito.verify(backend, Mockito.never()).openOutputResource("output-2");
+
+        // closing an unread stream doesn't open its resource
+        streams.get("output-2").close();
+        Mockito.verify(backend, Mockito.never()).openOutputResource("output-2");
+    }
+
+    @Test
+    void testLazyStreamReportsFailureWhenRead() throws IOException {
+        final var backend = Mockito.mock(IWorkflowBackend.class);
+        when(backend.openOutputResource("missing")).thenThrow(new IOException("No output with identifier missing"));
+
+        final var in = OutputResourceDownload.openLazily(backend, List.of("missing")).get("missing");
+        assertThatThrownBy(in::read).isInstanceOf(IOException.class).hasMessageContaining("missing");
+        in.close();
+    }
+}
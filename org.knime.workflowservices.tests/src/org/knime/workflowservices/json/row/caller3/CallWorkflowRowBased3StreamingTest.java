@@ -0,0 +1,206 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workflowservices.json.row.caller3;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTable;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataTableSpecCreator;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.filestore.internal.NotInWorkflowDataRepository;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.DefaultNodeProgressMonitor;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.Node;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.port.PortType;
+import org.knime.core.node.streamable.BufferedDataTableRowOutput;
+import org.knime.core.node.streamable.DataTableRowInput;
+import org.knime.core.node.streamable.PartitionInfo;
+import org.knime.core.node.streamable.PortInput;
+import org.knime.core.node.streamable.PortOutput;
+import org.knime.core.node.workflow.SingleNodeContainer;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkPortObjectInNodeFactory;
+import org.knime.workflowservices.BackendExecutionResult;
+import org.knime.workflowservices.IWorkflowBackend;
+import org.knime.workflowservices.IWorkflowBackend.WorkflowState;
+import org.knime.workflowservices.connection.util.ConnectionUtil;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import jakarta.json.Json;
+import jakarta.json.JsonValue;
+
+/**
+ * Tests that {@link CallWorkflowRowBased3NodeModel} produces the same rows when it is streamed as when it processes the
+ * whole input table. The callee workflow is replaced by mocked backends that number their invocations.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class CallWorkflowRowBased3StreamingTest {
+
+    private ExecutionContext m_exec;
+
+    private BufferedDataTable m_table;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @BeforeEach
+    void createTable() {
+        m_exec = new ExecutionContext(new DefaultNodeProgressMonitor(),
+            new Node((NodeFactory<NodeModel>)(NodeFactory)new VirtualParallelizedChunkPortObjectInNodeFactory(
+                new PortType[0])),
+            SingleNodeContainer.MemoryPolicy.CacheSmallInMemory, NotInWorkflowDataRepository.newInstance());
+        final var container = m_exec.createDataContainer(new DataTableSpecCreator()
+            .addColumns(new DataColumnSpecCreator("string", StringCell.TYPE).createSpec()).createSpec());
+        for (var i = 0; i < 20; i++) {
+            container.addRowToTable(new DefaultRow(RowKey.createRowKey((long)i), new StringCell("value " + i)));
+        }
+        container.close();
+        m_table = container.getTable();
+    }
+
+    @Test
+    void testStreamedRowsEqualBufferedRows() throws Exception {
+        final BufferedDataTable buffered;
+        try (var connectionUtil = Mockito.mockStatic(ConnectionUtil.class)) {
+            mockBackends(connectionUtil, List.of("result-1"), List.of("result-1"));
+            buffered = createModel().execute(new PortObject[]{m_table}, m_exec)[0];
+        }
+
+        final BufferedDataTable streamed;
+        try (var connectionUtil = Mockito.mockStatic(ConnectionUtil.class)) {
+            mockBackends(connectionUtil, List.of("result-1"), List.of("result-1"));
+            streamed = stream(createModel());
+        }
+
+        assertThat(streamed.getDataTableSpec()).isEqualTo(buffered.getDataTableSpec());
+        assertThat(rows(streamed)).isEqualTo(rows(buffered));
+        assertThat(buffered.size()).isEqualTo(m_table.size());
+    }
+
+    @Test
+    void testStreamedRowsMatchFinalSpec() throws Exception {
+        try (var connectionUtil = Mockito.mockStatic(ConnectionUtil.class)) {
+            // the callee workflow gets another output after the output spec has been computed
+            mockBackends(connectionUtil, List.of("result-1"), List.of("result-1", "result-2"));
+            final var streamed = stream(createModel());
+
+            assertThat(streamed.getDataTableSpec().getColumnNames()).containsExactly("string", "result-1", "Status");
+            assertThat(streamed.size()).isEqualTo(m_table.size());
+        }
+    }
+
+    private static CallWorkflowRowBased3NodeModel createModel() {
+        return new CallWorkflowRowBased3NodeModel(new CallWorkflowRowBased3NodeFactory().createNodeCreationConfig());
+    }
+
+    /**
+     * @param specOutputs the output parameters of the backend used to compute the output spec
+     * @param executionOutputs the output parameters of the backends that process the rows
+     */
+    private static void mockBackends(final MockedStatic<ConnectionUtil> connectionUtil, final List<String> specOutputs,
+        final List<String> executionOutputs) {
+        connectionUtil.when(() -> ConnectionUtil.createWorkflowBackend(any()))
+            .thenAnswer(i -> mockBackend(specOutputs));
+        connectionUtil.when(() -> ConnectionUtil.createWorkflowBackends(any(), anyInt()))
+            .thenAnswer(i -> List.of(mockBackend(executionOutputs)));
+    }
+
+    private static IWorkflowBackend mockBackend(final List<String> outputs) throws Exception {
+        final var backend = Mockito.mock(IWorkflowBackend.class);
+        final Map<String, JsonValue> outputValues = new LinkedHashMap<>();
+        outputs.forEach(output -> outputValues.put(output, JsonValue.NULL));
+        when(backend.getOutputValues()).thenReturn(outputValues);
+        final var invocations = new AtomicInteger();
+        when(backend.executeWorkflow(any(), anyMap())).thenAnswer(i -> {
+            final var invocation = invocations.incrementAndGet();
+            final Map<String, JsonValue> results = new LinkedHashMap<>();
+            outputs.forEach(output -> results.put(output, Json.createValue(output + "-" + invocation)));
+            return new BackendExecutionResult(results, null, null, null, WorkflowState.EXECUTED, 10);
+        });
+        return backend;
+    }
+
+    private BufferedDataTable stream(final CallWorkflowRowBased3NodeModel model) throws Exception {
+        final var inSpecs = new PortObjectSpec[]{m_table.getDataTableSpec()};
+        final var outSpec = (DataTableSpec)model.computeFinalOutputSpecs(null, inSpecs)[0];
+        final var output = new BufferedDataTableRowOutput(m_exec.createDataContainer(outSpec));
+        model.createStreamableOperator(new PartitionInfo(0, 1), inSpecs).runFinal(
+            new PortInput[]{new DataTableRowInput(m_table)}, new PortOutput[]{output}, m_exec);
+        return output.getDataTable();
+    }
+
+    private static List<List<Object>> rows(final DataTable table) {
+        final List<List<Object>> rows = new ArrayList<>();
+        for (DataRow row : table) {
+            final List<Object> values = new ArrayList<>();
+            values.add(row.getKey());
+            row.forEach(values::add);
+            rows.add(values);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workflowservices.json.table.caller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataTableSpecCreator;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.filestore.internal.NotInWorkflowDataRepository;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.DefaultNodeProgressMonitor;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.Node;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.port.PortType;
+import org.knime.core.node.workflow.SingleNodeContainer;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkPortObjectInNodeFactory;
+import org.knime.workflowservices.IWorkflowBackend;
+import org.knime.workflowservices.IWorkflowBackend.ResourceContentType;
+import org.knime.workflowservices.knime.util.CallWorkflowPayloadStore;
+import org.mockito.Mockito;
+
+/**
+ * Tests the exchange of tables in KNIME's binary table format by {@link AbstractCallWorkflowTableNodeModel}, which is
+ * used if the callee workflow receives or provides the table via a Workflow Input or Workflow Output node.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class BinaryTableTransportTest {
+
+    private static final ResourceContentType TABLE = ResourceContentType.of(BufferedDataTable.TYPE);
+
+    private ExecutionContext m_exec;
+
+    private BufferedDataTable m_table;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @BeforeEach
+    void createTable() {
+        m_exec = new ExecutionContext(new DefaultNodeProgressMonitor(),
+            new Node((NodeFactory<NodeModel>)(NodeFactory)new VirtualParallelizedChunkPortObjectInNodeFactory(
+                new PortType[0])),
+            SingleNodeContainer.MemoryPolicy.CacheSmallInMemory, NotInWorkflowDataRepository.newInstance());
+        final var container = m_exec.createDataContainer(new DataTableSpecCreator().addColumns( //
+            new DataColumnSpecCreator("string", StringCell.TYPE).createSpec(), //
+            new DataColumnSpecCreator("int", IntCell.TYPE).createSpec()).createSpec());
+        for (var i = 0; i < 100; i++) {
+            container.addRowToTable(
+                new DefaultRow(RowKey.createRowKey((long)i), new StringCell("value " + i), new IntCell(i)));
+        }
+        container.close();
+        m_table = container.getTable();
+    }
+
+    @Test
+    void testTableIsSentAsResourceIfCalleeAcceptsIt() throws Exception {
+        final var backend = Mockito.mock(IWorkflowBackend.class);
+        when(backend.getInputResourceDescription()).thenReturn(Map.of("table-input-3", TABLE));
+
+        final var input =
+            AbstractCallWorkflowTableNodeModel.createBinaryTableInput(backend, "table-input", false, m_table, m_exec);
+        assertThat(input).isPresent();
+        assertThat(input.get().getID()).isEqualTo("table-input-3");
+        final var file = new File(input.get().getResource());
+        try {
+            assertThat(file).exists();
+
+            // the callee workflow returns the very same file as its output
+            when(backend.getOutputResourceDescription()).thenReturn(Map.of("table-output-7", TABLE));
+            when(backend.openOutputResource("table-output-7"))
+                .thenAnswer(i -> Files.newInputStream(file.toPath()));
+            final var output =
+                AbstractCallWorkflowTableNodeModel.readBinaryTableOutput(backend, "table-output", false, m_exec);
+            assertThat(output).isPresent();
+            final var table = (BufferedDataTable)output.get();
+            assertThat(table.getDataTableSpec()).isEqualTo(m_table.getDataTableSpec());
+            assertThat(table.size()).isEqualTo(m_table.size());
+        } finally {
+            CallWorkflowPayloadStore.release(input.get().getResource());
+        }
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void testTableIsSentAsJsonOtherwise() throws Exception {
+        final var backend = Mockito.mock(IWorkflowBackend.class);
+        when(backend.getInputResourceDescription()).thenReturn(Map.of("table-input-3", TABLE));
+        when(backend.getOutputResourceDescription()).thenReturn(Map.of());
+
+        // the parameter id is fully qualified, but doesn't refer to the table resource
+        assertThat(AbstractCallWorkflowTableNodeModel.createBinaryTableInput(backend, "table-input", true, m_table,
+            m_exec)).isEmpty();
+        assertThat(AbstractCallWorkflowTableNodeModel.readBinaryTableOutput(backend, "table-output", false, m_exec))
+            .isEmpty();
+    }
+}
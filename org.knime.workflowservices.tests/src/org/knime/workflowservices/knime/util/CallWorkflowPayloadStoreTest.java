@@ -0,0 +1,188 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workflowservices.knime.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the reference counting, accounting, quota, and scratch directory of {@link CallWorkflowPayloadStore}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class CallWorkflowPayloadStoreTest {
+
+    @TempDir
+    Path m_scratchDir;
+
+    @AfterEach
+    void clearProperties() {
+        System.clearProperty(CallWorkflowPayloadStore.PROPERTY_SCRATCH_DIR);
+        System.clearProperty(CallWorkflowPayloadStore.PROPERTY_MAX_OUTSTANDING_MB);
+    }
+
+    @Test
+    void testFileIsDeletedWhenLastReferenceIsReleased() throws IOException {
+        final var before = CallWorkflowPayloadStore.getStatistics();
+        final var file = write(CallWorkflowPayloadStore.createFile("payload-", ".bin", -1), 1000);
+        assertThat(CallWorkflowPayloadStore.getStatistics().outstandingBytes())
+            .isEqualTo(before.outstandingBytes() + 1000);
+
+        assertThat(CallWorkflowPayloadStore.retain(file.toURI())).isTrue();
+        CallWorkflowPayloadStore.release(file.toURI());
+        assertThat(file).exists();
+        CallWorkflowPayloadStore.release(file.toURI());
+        assertThat(file).doesNotExist();
+        assertThat(CallWorkflowPayloadStore.retain(file.toURI())).isFalse();
+
+        final var after = CallWorkflowPayloadStore.getStatistics();
+        assertThat(after.outstandingBytes()).isEqualTo(before.outstandingBytes());
+        assertThat(after.createdFiles()).isEqualTo(before.createdFiles() + 1);
+        assertThat(after.deletedFiles()).isEqualTo(before.deletedFiles() + 1);
+    }
+
+    @Test
+    void testFilesDeletedByOthersAreNoLongerOutstanding() throws IOException {
+        final var before = CallWorkflowPayloadStore.getStatistics();
+        final var file = write(CallWorkflowPayloadStore.createFile("payload-", ".bin", -1), 10);
+        Files.delete(file.toPath());
+        assertThat(CallWorkflowPayloadStore.getStatistics().outstandingFiles()).isEqualTo(before.outstandingFiles());
+    }
+
+    @Test
+    void testSmallPayloadsAreWrittenToScratchDirectory() throws IOException {
+        System.setProperty(CallWorkflowPayloadStore.PROPERTY_SCRATCH_DIR, m_scratchDir.toString());
+        final var small = CallWorkflowPayloadStore.createFile("payload-", ".bin", 10);
+        final var large = CallWorkflowPayloadStore.createFile("payload-", ".bin", Long.MAX_VALUE);
+        final var unknown = CallWorkflowPayloadStore.createFile("payload-", ".bin", -1);
+        try {
+            assertThat(small.toPath().getParent()).isEqualTo(m_scratchDir);
+            assertThat(large.toPath().getParent()).isNotEqualTo(m_scratchDir);
+            assertThat(unknown.toPath().getParent()).isNotEqualTo(m_scratchDir);
+        } finally {
+            CallWorkflowPayloadStore.release(small.toURI());
+            CallWorkflowPayloadStore.release(large.toURI());
+            CallWorkflowPayloadStore.release(unknown.toURI());
+        }
+    }
+
+    @Test
+    void testPayloadExceedingQuotaIsDeleted() throws IOException {
+        final var outstanding = CallWorkflowPayloadStore.getStatistics().outstandingBytes();
+        System.setProperty(CallWorkflowPayloadStore.PROPERTY_MAX_OUTSTANDING_MB,
+            Long.toString((outstanding >> 20) + 1));
+        final var file = CallWorkflowPayloadStore.createFile("payload-", ".bin", -1);
+        Files.write(file.toPath(), new byte[2 << 20]);
+        assertThatThrownBy(() -> CallWorkflowPayloadStore.written(file)).isInstanceOf(IOException.class)
+            .hasMessageContaining(CallWorkflowPayloadStore.PROPERTY_MAX_OUTSTANDING_MB);
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void testQuotaIsCheckedWhileWriting() throws IOException {
+        final var outstanding = CallWorkflowPayloadStore.getStatistics().outstandingBytes();
+        final var maxMB = (outstanding >> 20) + 1;
+        System.setProperty(CallWorkflowPayloadStore.PROPERTY_MAX_OUTSTANDING_MB, Long.toString(maxMB));
+        final var file = CallWorkflowPayloadStore.createFile("payload-", ".bin", -1);
+        final var chunk = new byte[64 << 10];
+        var written = 0L;
+        try (var out = CallWorkflowPayloadStore.newOutputStream(file)) {
+            final var tooMuch = (maxMB + 16) << 20;
+            assertThatThrownBy(() -> {
+                for (var i = 0L; i < tooMuch; i += chunk.length) {
+                    out.write(chunk);
+                }
+            }).isInstanceOf(IOException.class)
+                .hasMessageContaining(CallWorkflowPayloadStore.PROPERTY_MAX_OUTSTANDING_MB);
+            written = file.length();
+        } finally {
+            CallWorkflowPayloadStore.discard(file);
+        }
+        // writing stopped soon after the quota was exceeded rather than at the end of the payload
+        assertThat(written).isLessThan((maxMB + 2) << 20);
+        assertThat(file).doesNotExist();
+        assertThat(CallWorkflowPayloadStore.getStatistics().outstandingBytes()).isEqualTo(outstanding);
+    }
+
+    @Test
+    void testHandedOverFilesDoNotCountAgainstQuota() throws IOException {
+        final var before = CallWorkflowPayloadStore.getStatistics();
+        final var file = CallWorkflowPayloadStore.handOver(write(CallWorkflowPayloadStore.createFile("payload-", ".bin",
+            -1), 2 << 20));
+        try {
+            final var after = CallWorkflowPayloadStore.getStatistics();
+            assertThat(after.outstandingFiles()).isEqualTo(before.outstandingFiles());
+            assertThat(after.outstandingBytes()).isEqualTo(before.outstandingBytes());
+            assertThat(after.deletedFiles()).isEqualTo(before.deletedFiles());
+
+            // the owner keeps the file, further payloads can be written
+            System.setProperty(CallWorkflowPayloadStore.PROPERTY_MAX_OUTSTANDING_MB,
+                Long.toString((before.outstandingBytes() >> 20) + 1));
+            CallWorkflowPayloadStore.release(file.toURI());
+            assertThat(file).exists();
+            CallWorkflowPayloadStore.release(write(CallWorkflowPayloadStore.createFile("payload-", ".bin", -1), 10)
+                .toURI());
+        } finally {
+            CallWorkflowPayloadStore.discard(file);
+        }
+        assertThat(file).doesNotExist();
+    }
+
+    private static File write(final File file, final int size) throws IOException {
+        Files.write(file.toPath(), new byte[size]);
+        CallWorkflowPayloadStore.written(file);
+        return file;
+    }
+}
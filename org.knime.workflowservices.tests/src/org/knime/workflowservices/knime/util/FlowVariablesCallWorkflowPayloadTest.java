@@ -0,0 +1,90 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workflowservices.knime.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.knime.core.node.workflow.CredentialsStore;
+import org.knime.core.node.workflow.FlowVariable;
+
+/**
+ * Tests the fingerprint {@link FlowVariablesCallWorkflowPayload} uses to reuse written flow variable files.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class FlowVariablesCallWorkflowPayloadTest {
+
+    private static final String PASSWORD = "s3cr3t-password";
+
+    @Test
+    void testFingerprintDoesNotContainPassword() {
+        final var fingerprint = FlowVariablesCallWorkflowPayload.fingerprint(List.of(credentials("cred", PASSWORD)));
+        assertThat(fingerprint).doesNotContain(PASSWORD).hasSize(64);
+    }
+
+    @Test
+    void testFingerprintDistinguishesValues() {
+        final var fingerprint = FlowVariablesCallWorkflowPayload.fingerprint(List.of(credentials("cred", PASSWORD)));
+        assertThat(FlowVariablesCallWorkflowPayload.fingerprint(List.of(credentials("cred", PASSWORD))))
+            .isEqualTo(fingerprint);
+        assertThat(FlowVariablesCallWorkflowPayload.fingerprint(List.of(credentials("cred", "other"))))
+            .isNotEqualTo(fingerprint);
+        assertThat(FlowVariablesCallWorkflowPayload.fingerprint(List.of(credentials("other", PASSWORD))))
+            .isNotEqualTo(fingerprint);
+        assertThat(FlowVariablesCallWorkflowPayload.fingerprint(List.of(new FlowVariable("cred", PASSWORD))))
+            .isNotEqualTo(fingerprint);
+        // length prefixes keep adjacent values apart
+        assertThat(FlowVariablesCallWorkflowPayload.fingerprint(List.of(new FlowVariable("ab", "c"))))
+            .isNotEqualTo(FlowVariablesCallWorkflowPayload.fingerprint(List.of(new FlowVariable("a", "bc"))));
+    }
+
+    private static FlowVariable credentials(final String name, final String password) {
+        return CredentialsStore.newCredentialsFlowVariable(name, "login", password, false, false);
+    }
+}
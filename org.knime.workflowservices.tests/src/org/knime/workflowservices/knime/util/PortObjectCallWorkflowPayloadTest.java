@@ -0,0 +1,143 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workflowservices.knime.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.knime.core.data.filestore.internal.NotInWorkflowDataRepository;
+import org.knime.core.node.DefaultNodeProgressMonitor;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.Node;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.port.PortType;
+import org.knime.core.node.workflow.SingleNodeContainer;
+import org.knime.core.node.workflow.WorkflowManager;
+import org.knime.core.node.workflow.capture.WorkflowPortObject;
+import org.knime.core.node.workflow.capture.WorkflowPortObjectSpec;
+import org.knime.core.node.workflow.capture.WorkflowSegment;
+import org.knime.core.node.workflow.virtual.AbstractPortObjectRepositoryNodeModel;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkPortObjectInNodeFactory;
+import org.knime.testing.util.WorkflowManagerUtil;
+
+/**
+ * Round trips workflow port objects through the payload written by
+ * {@link CallWorkflowUtil#writeWorkflowPortObjectAndReferencedData} and read by {@link PortObjectCallWorkflowPayload}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class PortObjectCallWorkflowPayloadTest {
+
+    private WorkflowManager m_wfm;
+
+    private ExecutionContext m_exec;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @BeforeEach
+    void createWorkflow() throws IOException {
+        m_wfm = WorkflowManagerUtil.createEmptyWorkflow();
+        m_exec = new ExecutionContext(new DefaultNodeProgressMonitor(),
+            new Node((NodeFactory<NodeModel>)(NodeFactory)new VirtualParallelizedChunkPortObjectInNodeFactory(
+                new PortType[0])),
+            SingleNodeContainer.MemoryPolicy.CacheSmallInMemory, NotInWorkflowDataRepository.newInstance());
+    }
+
+    @AfterEach
+    void disposeWorkflow() {
+        WorkflowManagerUtil.disposeWorkflow(m_wfm);
+    }
+
+    /**
+     * A segment without reference reader nodes is written and adopted without copying, the result has to be the same
+     * as the copy made by {@link WorkflowPortObject#transformAndCopy} before.
+     */
+    @Test
+    void testRoundTripSegmentWithoutReferenceReaders() throws Exception {
+        final var segment = new WorkflowSegment(m_wfm, List.of(), List.of(), Set.of());
+        final var portObject =
+            new WorkflowPortObject(new WorkflowPortObjectSpec(segment, segment.getName(), List.of(), List.of()));
+        final var copy = portObject.transformAndCopy(wfm -> {
+        });
+
+        final File file = CallWorkflowUtil.writeWorkflowPortObjectAndReferencedData(portObject, m_exec);
+        try {
+            final var payload = PortObjectCallWorkflowPayload.createFrom(file);
+            final var result = payload.onExecute(m_exec, v -> {
+            }, mock(AbstractPortObjectRepositoryNodeModel.class));
+
+            assertThat(result).isInstanceOf(WorkflowPortObject.class);
+            final var resultSpec = ((WorkflowPortObject)result).getSpec();
+            final var copySpec = copy.getSpec();
+            assertThat(resultSpec.getWorkflowName()).isEqualTo(copySpec.getWorkflowName());
+            assertThat(resultSpec.getInputIDs()).isEqualTo(copySpec.getInputIDs());
+            assertThat(resultSpec.getOutputIDs()).isEqualTo(copySpec.getOutputIDs());
+            final var resultSegment = resultSpec.getWorkflowSegment();
+            final var copySegment = copySpec.getWorkflowSegment();
+            assertThat(resultSegment.getName()).isEqualTo(copySegment.getName());
+            assertThat(resultSegment.getConnectedInputs()).isEqualTo(copySegment.getConnectedInputs());
+            assertThat(resultSegment.getConnectedOutputs()).isEqualTo(copySegment.getConnectedOutputs());
+            assertThat(resultSegment.getPortObjectReferenceReaderNodes()).isEmpty();
+            try {
+                assertThat(resultSegment.loadWorkflow().getNodeContainers())
+                    .hasSameSizeAs(copySegment.loadWorkflow().getNodeContainers());
+            } finally {
+                resultSegment.disposeWorkflow();
+                copySegment.disposeWorkflow();
+            }
+        } finally {
+            CallWorkflowPayloadStore.discard(file);
+        }
+    }
+}
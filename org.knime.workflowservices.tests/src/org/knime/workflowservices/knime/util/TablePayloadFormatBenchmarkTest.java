@@ -0,0 +1,163 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workflowservices.knime.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpecCreator;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.container.ContainerTable;
+import org.knime.core.data.container.DataContainer;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.FileUtil;
+
+/**
+ * Round trip of a table through each {@link TablePayloadFormat}, logging the write and read throughput per format.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class TablePayloadFormatBenchmarkTest {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(TablePayloadFormatBenchmarkTest.class);
+
+    private static final int ROW_COUNT = 200_000;
+
+    private static ContainerTable table;
+
+    @BeforeAll
+    static void createTable() {
+        final var spec = new DataTableSpecCreator().addColumns( //
+            new DataColumnSpecCreator("string", StringCell.TYPE).createSpec(), //
+            new DataColumnSpecCreator("int", IntCell.TYPE).createSpec(), //
+            new DataColumnSpecCreator("long", LongCell.TYPE).createSpec(), //
+            new DataColumnSpecCreator("double", DoubleCell.TYPE).createSpec(), //
+            new DataColumnSpecCreator("boolean", BooleanCell.TYPE).createSpec()).createSpec();
+        final var container = new DataContainer(spec);
+        for (var i = 0; i < ROW_COUNT; i++) {
+            container.addRowToTable(new DefaultRow(RowKey.createRowKey((long)i), //
+                new StringCell("value " + (i % 1000)), //
+                new IntCell(i), //
+                i % 10 == 0 ? DataType.getMissingCell() : new LongCell(i * 31L), //
+                new DoubleCell(i / 7d), //
+                BooleanCell.get(i % 2 == 0)));
+        }
+        container.close();
+        table = (ContainerTable)container.getTable();
+    }
+
+    @AfterAll
+    static void disposeTable() {
+        table.close();
+    }
+
+    @ParameterizedTest
+    @EnumSource(TablePayloadFormat.class)
+    void testRoundTrip(final TablePayloadFormat format) throws IOException, CanceledExecutionException {
+        final File file = FileUtil.createTempFile("table-payload-", ".bin", true);
+        try {
+            final var writeStart = System.nanoTime();
+            try (var out = new BufferedOutputStream(Files.newOutputStream(file.toPath()))) {
+                TableCallWorkflowPayload.write(table, ROW_COUNT, format, out, new ExecutionMonitor());
+            }
+            final var writeNanos = System.nanoTime() - writeStart;
+
+            if (format != TablePayloadFormat.ZIP) {
+                // the spec precedes the rows
+                assertThat(TableCallWorkflowPayload.readSpec(file)).contains(table.getDataTableSpec());
+            }
+
+            final var readStart = System.nanoTime();
+            final List<DataRow> rows = new ArrayList<>(ROW_COUNT);
+            try (var in = new BufferedInputStream(Files.newInputStream(file.toPath()));
+                    var payload = TableCallWorkflowPayload.createFrom(in)) {
+                assertThat(payload.getSpec()).isEqualTo(table.getDataTableSpec());
+                payload.getContainerTable().forEach(rows::add);
+            }
+            final var readNanos = System.nanoTime() - readStart;
+
+            assertThat(rows).hasSize(ROW_COUNT);
+            var i = 0;
+            for (DataRow expected : table) {
+                final DataRow actual = rows.get(i++);
+                assertThat(actual.getKey()).isEqualTo(expected.getKey());
+                final var expectedCells = new ArrayList<DataCell>();
+                expected.forEach(expectedCells::add);
+                final var actualCells = new ArrayList<DataCell>();
+                actual.forEach(actualCells::add);
+                assertThat(actualCells).isEqualTo(expectedCells);
+            }
+
+            LOGGER.infoWithFormat("%s: %d bytes, write %.1f rows/ms, read %.1f rows/ms", format, file.length(),
+                ROW_COUNT / (writeNanos / 1e6), ROW_COUNT / (readNanos / 1e6));
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+}
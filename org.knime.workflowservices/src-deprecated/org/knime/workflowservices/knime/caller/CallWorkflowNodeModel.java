@@ -115,8 +115,13 @@ private PortObject[] executeWorkflow(final IWorkflowBackend backend, final PortO
 
         // execute and check success
         exec.setMessage("Executing callee workflow.");
-        backend.loadWorkflow();
-        WorkflowState state = backend.executeAsWorkflowService(workflowInput);
+        WorkflowState state;
+        try {
+            backend.loadWorkflow();
+            state = backend.executeAsWorkflowService(workflowInput);
+        } finally {
+            CallWorkflowUtil.releaseWorkflowInput(workflowInput);
+        }
         CheckUtils.checkArgument(state == WorkflowState.EXECUTED, workflowExecutionFailureMessage(backend, state));
 
         // retrieve and restored callee workflow outputs
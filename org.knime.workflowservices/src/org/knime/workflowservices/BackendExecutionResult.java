@@ -23,6 +23,7 @@
 import java.util.Map;
 import java.util.Optional;
 
+import org.apache.commons.lang3.StringUtils;
 import org.knime.core.util.report.ReportingConstants.RptOutputFormat;
 import org.knime.workflowservices.IWorkflowBackend.ReportGenerationException;
 import org.knime.workflowservices.IWorkflowBackend.WorkflowState;
@@ -128,4 +129,46 @@ public long getElapsedTimeMs() {
         return m_elapsedTimeMs;
     }
 
+    /**
+     * Collects the results of a workflow execution that finished in the given state. Fetches the output values and
+     * generates the report, if requested, in case of successful execution.
+     *
+     * @param backend the backend that executed the workflow
+     * @param workflowState the state after execution
+     * @param reportFormatOrNull the format of the report to generate, {@code null} to not generate a report
+     * @param elapsedTimeMs the execution time
+     * @return the execution result
+     */
+    static BackendExecutionResult collect(final IWorkflowBackend backend, final WorkflowState workflowState,
+        final RptOutputFormat reportFormatOrNull, final long elapsedTimeMs) {
+        // handle failure
+        if (workflowState != WorkflowState.EXECUTED) {
+            return new BackendExecutionResult(failureMessage(backend.getWorkflowMessage()), workflowState,
+                elapsedTimeMs);
+        }
+
+        // generate report
+        byte[] report = null;
+        ReportGenerationException reportException = null;
+        if (reportFormatOrNull != null) {
+            try {
+                report = backend.generateReport(reportFormatOrNull);
+            } catch (ReportGenerationException e) {
+                reportException = e;
+            }
+        }
+
+        return new BackendExecutionResult(backend.getOutputValues(), report, reportException,
+            // report exceptions do not show up in the general workflow error message
+            null, workflowState, elapsedTimeMs);
+    }
+
+    private static String failureMessage(final String reason) {
+        String message = "Failure, workflow was not executed.";
+        if (StringUtils.isNotBlank(reason)) {
+            message = message + "\n" + reason;
+        }
+        return message;
+    }
+
 }
\ No newline at end of file
@@ -48,21 +48,28 @@
  */
 package org.knime.workflowservices;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import org.apache.commons.lang3.StringUtils;
 import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.dialog.ContentType;
 import org.knime.core.node.dialog.ExternalNodeData;
 import org.knime.core.node.port.PortType;
 import org.knime.core.node.port.PortTypeRegistry;
 import org.knime.core.node.util.CheckUtils;
+import org.knime.core.util.ThreadUtils;
 import org.knime.core.util.report.ReportingConstants.RptOutputFormat;
+import org.knime.workflowservices.connection.util.OutputResourceDownload;
 
 import jakarta.json.JsonValue;
 
@@ -136,6 +143,37 @@ default Map<String, JsonValue> getOutputValuesForConfiguration() {
      */
     InputStream openOutputResource(final String name) throws IOException;
 
+    /**
+     * Opens several output resources at once, e.g., to retrieve all outputs of a callee workflow. The default
+     * implementation returns streams that open their resource via {@link #openOutputResource(String)} only when they are
+     * read for the first time, see {@link OutputResourceDownload#openLazily(IWorkflowBackend, List)}, such that a
+     * caller that reads one after the other has only one resource open at a time. Implementations that are safe for
+     * concurrent calls can override it to download the resources concurrently, without paying one round-trip after the
+     * other, see {@link OutputResourceDownload#download(IWorkflowBackend, List)}; implementations that can fetch
+     * several resources in one request can override it to do so.
+     *
+     * @param names of the Output nodes
+     * @return the Output nodes' resources as streams by name, the caller must close all of them
+     * @throws IOException if one of the resources cannot be opened, none of the streams is returned then; the default
+     *             implementation reports such failures when the stream is read
+     */
+    default Map<String, InputStream> openOutputResources(final List<String> names) throws IOException {
+        return OutputResourceDownload.openLazily(this, names);
+    }
+
+    /**
+     * Provides the output resource as a local file if it is file-backed, such that callers can read it directly
+     * instead of copying it through {@link #openOutputResource(String)}. The file is owned by the callee workflow and
+     * must not be modified or deleted; it is only valid until the backend is closed.
+     *
+     * @param name of the Output node
+     * @return the file holding the Output's node resource, empty if the resource is not available as a local file
+     * @throws IOException if there is no output with the given name
+     */
+    default Optional<File> getOutputResourceFile(final String name) throws IOException {
+        return Optional.empty();
+    }
+
     /**
      * Executes the workflow and returns the state after execution. The map doesn't need to contain all input values but
      * only the ones that have changed
@@ -199,33 +237,65 @@ public default BackendExecutionResult executeWorkflow(final RptOutputFormat repo
         final var workflowState = this.execute(input);
         long elapsedTimeMs = System.currentTimeMillis() - start;
 
-        // handle failure
-        if (workflowState != WorkflowState.EXECUTED) {
-            return new BackendExecutionResult(failureMessage(this.getWorkflowMessage()), workflowState, elapsedTimeMs);
-        }
+        return BackendExecutionResult.collect(this, workflowState, reportFormatOrNull, elapsedTimeMs);
+    }
 
-        // generate report
-        byte[] report = null;
-        ReportGenerationException reportException = null;
-        if (reportFormatOrNull != null) {
+    /**
+     * Asynchronous variant of {@link #executeWorkflow(RptOutputFormat, Map)}. Allows callers to run many invocations
+     * at the same time without blocking a thread per invocation. The default implementation runs
+     * {@link #executeWorkflow(RptOutputFormat, Map)} on the KNIME thread pool, implementations should override it to
+     * not block any thread while the workflow executes.
+     *
+     * Cancelling the returned future cancels the execution of the workflow if supported by the implementation. The
+     * default implementation is not interruptible: cancelling only prevents an execution that has not started yet, a
+     * running execution continues and the future completes once it has finished. The backend must not be used for
+     * other invocations, or be closed, before the returned future completes.
+     *
+     * @param reportFormatOrNull the format (pdf, docx, etc.) in which the report for the workflow should be generated
+     * @param input bindings of the input parameters of the workflow
+     * @return a future providing the output values, optional report, execution summary, execution duration
+     */
+    public default CompletableFuture<BackendExecutionResult> executeAsync(final RptOutputFormat reportFormatOrNull,
+        final Map<String, ExternalNodeData> input) {
+        final var started = new AtomicBoolean();
+        final var future = new CompletableFuture<BackendExecutionResult>() {
+            @Override
+            public boolean cancel(final boolean mayInterruptIfRunning) {
+                // a running execution cannot be interrupted, the future completes once it has finished
+                return started.compareAndSet(false, true) && super.cancel(mayInterruptIfRunning);
+            }
+        };
+        KNIMEConstants.GLOBAL_THREAD_POOL.enqueue(ThreadUtils.runnableWithContext(() -> {
+            if (!started.compareAndSet(false, true)) {
+                // cancelled before it started
+                return;
+            }
             try {
-                report = this.generateReport(reportFormatOrNull);
-            } catch (ReportGenerationException e) {
-                reportException = e;
+                future.complete(executeWorkflow(reportFormatOrNull, input));
+            } catch (Exception e) { // NOSONAR all failures are reported via the future
+                future.completeExceptionally(e);
             }
-        }
+        }));
+        return future;
+    }
 
-        return new BackendExecutionResult(this.getOutputValues(), report, reportException,
-            // report exceptions do not show up in the general workflow error message
-            null, workflowState, elapsedTimeMs);
+    /**
+     * @return whether the callee workflow runs in the same JVM as the caller, such that input tables and flow variables
+     *         can be handed over by reference rather than being written to files, see
+     *         {@link org.knime.workflowservices.knime.util.InProcessHandoff}
+     */
+    public default boolean supportsInProcessTransfer() {
+        return false;
     }
 
-    private static String failureMessage(final String reason) {
-        String message = "Failure, workflow was not executed.";
-        if (StringUtils.isNotBlank(reason)) {
-            message = message + "\n" + reason;
-        }
-        return message;
+    /**
+     * @return whether the backend reads file input resources via
+     *         {@link org.knime.workflowservices.knime.util.CallWorkflowUtil#openInputResource(java.net.URI)}, such
+     *         that tables can be passed while they are still being written, e.g., to overlap the upload of a large
+     *         table with its serialization
+     */
+    public default boolean supportsStreamingInput() {
+        return false;
     }
 
     /**
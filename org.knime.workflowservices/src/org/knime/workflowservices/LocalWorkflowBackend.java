@@ -59,15 +59,21 @@
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.TimerTask;
 import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
@@ -78,11 +84,15 @@
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.dialog.ExternalNodeData;
 import org.knime.core.node.util.CheckUtils;
 import org.knime.core.node.workflow.NodeContext;
 import org.knime.core.node.workflow.NodeMessage;
+import org.knime.core.node.workflow.NodeStateChangeListener;
+import org.knime.core.node.workflow.NodeStateEvent;
+import org.knime.core.node.workflow.SubNodeContainer;
 import org.knime.core.node.workflow.UnsupportedWorkflowVersionException;
 import org.knime.core.node.workflow.WorkflowLoadHelper;
 import org.knime.core.node.workflow.WorkflowManager;
@@ -97,6 +107,7 @@
 import org.knime.core.util.LockFailedException;
 import org.knime.core.util.Pair;
 import org.knime.core.util.ThreadLocalHTTPAuthenticator;
+import org.knime.core.util.ThreadUtils;
 import org.knime.core.util.URIUtil;
 import org.knime.core.util.pathresolve.ResolverUtil;
 import org.knime.core.util.proxy.URLConnectionFactory;
@@ -109,6 +120,7 @@
 import org.knime.workbench.explorer.ExplorerMountTable;
 import org.knime.workbench.ui.navigator.ProjectWorkflowMap;
 import org.knime.workflowservices.json.row.caller.local.CallLocalWorkflowNodeFactory;
+import org.knime.workflowservices.knime.util.CallWorkflowUtil;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
@@ -117,7 +129,9 @@
 import jakarta.json.JsonValue;
 
 /**
- * A local workflow representation. Workflows are kept in a cache and re-used with exclusive locks.
+ * A local workflow representation. Workflows are kept in a cache and re-used exclusively. For each callee workflow,
+ * the cache holds a {@link LocalWorkflowBackendPool pool} of independently loaded instances such that concurrent calls
+ * to the same callee workflow can be executed in parallel (see {@link LocalWorkflowBackendPool#PROPERTY_MAX_SIZE}).
  *
  * This backend is also used by deprecated nodes, so any changes must either be backward compatible to avoid breaking
  * {@link CallLocalWorkflowNodeFactory} (the Call Local Workflow (Row Based) node) and Pre43CallWorkflowTableNodeModel
@@ -129,16 +143,30 @@ public final class LocalWorkflowBackend implements IWorkflowBackend {
 
     private static final NodeLogger LOGGER = NodeLogger.getLogger(LocalWorkflowBackend.class);
 
-    private static final Cache<URI, LocalWorkflowBackend> CACHE =
-        CacheBuilder.newBuilder().expireAfterAccess(1L, TimeUnit.MINUTES).maximumSize(5)
-            .removalListener((final RemovalNotification<URI, LocalWorkflowBackend> notification) -> {
-                final var value = notification.getValue();
-                if (value.isInUse()) {
-                    value.setDiscardAfterUse();
-                } else {
-                    value.discard();
-                }
-            }).build();
+    /** System property to set the maximum number of callee workflows kept in the cache, defaults to 5. */
+    public static final String PROPERTY_CACHE_MAX_SIZE = "knime.workflowservices.local.cache.maxSize";
+
+    /**
+     * System property to set the number of seconds after which an unused callee workflow is removed from the cache,
+     * defaults to 60.
+     */
+    public static final String PROPERTY_CACHE_EXPIRE_AFTER_ACCESS =
+        "knime.workflowservices.local.cache.expireAfterAccessSeconds";
+
+    /**
+     * System property to bound the cache by the estimated heap size (in megabytes) of the cached callee workflows
+     * rather than by their number. If set to a positive value, {@link #PROPERTY_CACHE_MAX_SIZE} is ignored.
+     */
+    public static final String PROPERTY_CACHE_MAX_HEAP_MB = "knime.workflowservices.local.cache.maxHeapMB";
+
+    /**
+     * Rough estimate of the heap occupied by a loaded node (settings, specs, node model), used to weigh cache entries.
+     */
+    private static final long ESTIMATED_HEAP_BYTES_PER_NODE = 256L * 1024L;
+
+    private static final Cache<URI, LocalWorkflowBackendPool> CACHE =
+        createCache(Long.getLong(PROPERTY_CACHE_MAX_SIZE, 5L), Long.getLong(PROPERTY_CACHE_EXPIRE_AFTER_ACCESS, 60L),
+            Long.getLong(PROPERTY_CACHE_MAX_HEAP_MB, 0L));
 
     static {
         WorkflowServiceProjects.setOnRemoveAllProjectsCallback(CACHE::invalidateAll);
@@ -150,6 +178,69 @@ public final class LocalWorkflowBackend implements IWorkflowBackend {
 
     private static final Map<WorkflowManager, Set<URI>> CALLER_MAP = new WeakHashMap<>();
 
+    /**
+     * @param configuredMaxSize see {@link #PROPERTY_CACHE_MAX_SIZE}, at least one callee workflow is cached
+     * @param configuredExpireAfterAccessSeconds see {@link #PROPERTY_CACHE_EXPIRE_AFTER_ACCESS}, at least 1
+     * @param maxHeapMB see {@link #PROPERTY_CACHE_MAX_HEAP_MB}
+     * @return the cache for the pools of loaded callee workflows
+     */
+    static Cache<URI, LocalWorkflowBackendPool> createCache(final long configuredMaxSize,
+        final long configuredExpireAfterAccessSeconds, final long maxHeapMB) {
+        // Guava treats a zero expiry like a zero maximum size, i.e., every entry is evicted right away
+        final var expireAfterAccessSeconds = Math.max(1L, configuredExpireAfterAccessSeconds);
+        CacheBuilder<URI, LocalWorkflowBackendPool> builder = CacheBuilder.newBuilder() //
+            .recordStats() //
+            .expireAfterAccess(expireAfterAccessSeconds, TimeUnit.SECONDS) //
+            .removalListener(LocalWorkflowBackend::onCacheRemoval);
+        if (maxHeapMB > 0) {
+            // a single segment, otherwise each segment is limited to a fraction of the configured heap size
+            builder = builder.concurrencyLevel(1).maximumWeight(maxHeapMB * 1024L)
+                .weigher((final URI uri, final LocalWorkflowBackendPool pool) -> pool.getEstimatedWeightKB());
+            LOGGER.debugWithFormat("Caching callee workflows up to an estimated heap size of %d MB, expiring after %d s",
+                maxHeapMB, expireAfterAccessSeconds);
+        } else {
+            final var maxSize = Math.max(1L, configuredMaxSize);
+            builder = builder.maximumSize(maxSize);
+            LOGGER.debugWithFormat("Caching up to %d callee workflows, expiring after %d s", maxSize,
+                expireAfterAccessSeconds);
+        }
+        return builder.build();
+    }
+
+    private static void onCacheRemoval(final RemovalNotification<URI, LocalWorkflowBackendPool> notification) {
+        if (notification.wasEvicted()) {
+            LOGGER.debugWithFormat("Removing callee workflow \"%s\" from cache (%s)", notification.getKey(),
+                notification.getCause());
+        }
+        notification.getValue().invalidate();
+    }
+
+    /**
+     * Statistics of the cache holding the loaded callee workflows.
+     *
+     * @param hitCount how often a callee workflow was found in the cache
+     * @param missCount how often a callee workflow had to be loaded
+     * @param totalLoadTime the accumulated time spent loading callee workflows into the cache
+     * @param evictionCount how often a callee workflow was evicted due to size or expiration
+     */
+    public record CacheStatistics(long hitCount, long missCount, Duration totalLoadTime, long evictionCount) {
+
+        /** @return the average time it took to load a callee workflow */
+        public Duration averageLoadTime() {
+            return missCount == 0 ? Duration.ZERO : totalLoadTime.dividedBy(missCount);
+        }
+    }
+
+    /**
+     * @return statistics of the callee workflow cache, e.g., to tune {@link #PROPERTY_CACHE_MAX_SIZE},
+     *         {@link #PROPERTY_CACHE_MAX_HEAP_MB}, or {@link #PROPERTY_CACHE_EXPIRE_AFTER_ACCESS}
+     */
+    public static CacheStatistics getCacheStatistics() {
+        final var stats = CACHE.stats();
+        return new CacheStatistics(stats.hitCount(), stats.missCount(), Duration.ofNanos(stats.totalLoadTime()),
+            stats.evictionCount());
+    }
+
     /**
      * Creates a new local workflow backend.
      *
@@ -171,6 +262,143 @@ public static LocalWorkflowBackend newInstance(final String path, final Workflow
         throws Exception {
         CACHE.cleanUp();
 
+        final var location = resolveCalleeLocation(path, true);
+        final var localWorkflowBackend = borrow(CACHE, location.localUri(), createLoader(location),
+            location.deleteAfterUse(), true);
+        localWorkflowBackend.m_inUse.set(true);
+
+        registerCaller(callingWorkflow, location.localUri());
+
+        return localWorkflowBackend;
+    }
+
+    /**
+     * Like {@link #newInstance(String, WorkflowManager)} but does not wait for an instance of the callee workflow to
+     * become available if all instances are in use and the pool of instances is exhausted.
+     *
+     * @param path see {@link #newInstance(String, WorkflowManager)}
+     * @param callingWorkflow the calling workflow
+     * @return a backend, empty if no instance is available
+     * @throws Exception if the workflow could not be resolved or loaded
+     * @see LocalWorkflowBackendPool#PROPERTY_MAX_SIZE
+     */
+    public static Optional<LocalWorkflowBackend> tryNewInstance(final String path,
+        final WorkflowManager callingWorkflow) throws Exception {
+        CACHE.cleanUp();
+
+        final var location = resolveCalleeLocation(path, true);
+        final var localWorkflowBackend = borrow(CACHE, location.localUri(), createLoader(location),
+            location.deleteAfterUse(), false);
+        if (localWorkflowBackend == null) {
+            return Optional.empty();
+        }
+        localWorkflowBackend.m_inUse.set(true);
+
+        registerCaller(callingWorkflow, location.localUri());
+
+        return Optional.of(localWorkflowBackend);
+    }
+
+    /**
+     * Loads the given callee workflow into the cache in the background, such that a subsequent
+     * {@link #newInstance(String, WorkflowManager)} finds a warm instance and does not pay the cost of loading the
+     * workflow. Callee workflows that need to be downloaded are not preloaded, since each call downloads a fresh copy.
+     *
+     * Must be called with a {@link NodeContext} set, the context is propagated to the loading thread.
+     *
+     * @param path to the workflow, see {@link #newInstance(String, WorkflowManager)}
+     * @param callingWorkflow the calling workflow
+     * @return a future that completes once the workflow is loaded, or exceptionally if loading failed
+     */
+    public static CompletableFuture<Void> preload(final String path, final WorkflowManager callingWorkflow) {
+        final var future = new CompletableFuture<Void>();
+        KNIMEConstants.GLOBAL_THREAD_POOL.enqueue(ThreadUtils.runnableWithContext(() -> {
+            try {
+                final var location = resolveCalleeLocation(path, false);
+                if (location != null) {
+                    final var localUri = location.localUri();
+                    final var pool = CACHE.get(localUri, () -> {
+                        final var newPool = new LocalWorkflowBackendPool(localUri, createLoader(location));
+                        newPool.loadPrimary(false);
+                        return newPool;
+                    });
+                    pool.setDeleteAfterUse(location.deleteAfterUse());
+                    registerCaller(callingWorkflow, location.localUri());
+                    LOGGER.debugWithFormat("Preloaded callee workflow \"%s\"", location.localUri());
+                }
+                future.complete(null);
+            } catch (Exception e) { // NOSONAR all failures are reported via the future
+                future.completeExceptionally(e);
+            }
+        }));
+        return future;
+    }
+
+    private static LocalWorkflowBackendPool.Loader createLoader(final CalleeLocation location) {
+        return primary -> loadWorkflow(location.localUri(), location.originalUrl(), primary);
+    }
+
+    /**
+     * Borrows an instance of a callee workflow from its pool in the cache, loading the pool if necessary. Never loads
+     * the workflow more than once: the caller that loads the pool borrows its primary instance, and a caller that
+     * finds a pool that has been evicted concurrently gets an instance that is not cached.
+     *
+     * @param cache the cache of the pools
+     * @param uri the location of the callee workflow in the local file system
+     * @param loader loads instances of the callee workflow
+     * @param deleteAfterUse whether the workflow directory is deleted once the pool has been evicted
+     * @param wait whether to wait for an instance if all instances of the pool are in use
+     * @return the borrowed instance, {@code null} if the pool is exhausted and {@code wait} is false
+     * @throws Exception if loading the workflow fails
+     */
+    static LocalWorkflowBackend borrow(final Cache<URI, LocalWorkflowBackendPool> cache, final URI uri,
+        final LocalWorkflowBackendPool.Loader loader, final boolean deleteAfterUse, final boolean wait)
+        throws Exception {
+        final var loaded = new AtomicReference<LocalWorkflowBackend>();
+        final var pool = cache.get(uri, () -> {
+            final var newPool = new LocalWorkflowBackendPool(uri, loader);
+            newPool.setDeleteAfterUse(deleteAfterUse);
+            // the pool may be evicted as soon as it is cached, e.g., if it outweighs the cache
+            loaded.set(newPool.loadPrimary(true));
+            return newPool;
+        });
+        pool.setDeleteAfterUse(deleteAfterUse);
+        if (loaded.get() != null) {
+            return loaded.get();
+        }
+        final var backend = wait ? pool.borrow() : pool.tryBorrow();
+        if (backend != null || !pool.isInvalidated()) {
+            return backend;
+        }
+        LOGGER.debugWithFormat("Callee workflow \"%s\" was removed from the cache concurrently, loading it uncached",
+            uri);
+        return LocalWorkflowBackendPool.borrowDetached(uri, loader);
+    }
+
+    private static void registerCaller(final WorkflowManager callingWorkflow, final URI localUri) {
+        synchronized (CALLER_MAP) {
+            CALLER_MAP.computeIfAbsent(callingWorkflow, k -> new HashSet<>()).add(localUri);
+        }
+    }
+
+    /**
+     * The location of a callee workflow in the local file system.
+     *
+     * @param localUri the physical location in the local file system; may be a temporary copy of the workflow
+     * @param originalUrl the original URL as configured by the user, e.g. knime://knime.workflow/../Called
+     * @param deleteAfterUse whether the workflow has been downloaded into a temporary directory
+     */
+    private record CalleeLocation(URI localUri, URL originalUrl, boolean deleteAfterUse) {
+    }
+
+    /**
+     * @param path see {@link #newInstance(String, WorkflowManager)}
+     * @param allowDownload whether to download and extract the workflow if it is not available locally
+     * @return the resolved location or {@code null} if the workflow would need to be downloaded but
+     *         {@code allowDownload} is false
+     */
+    private static CalleeLocation resolveCalleeLocation(final String path, final boolean allowDownload)
+        throws IOException {
         URL originalUrl;
         try {
             originalUrl = new URL(path);
@@ -205,10 +433,12 @@ public static LocalWorkflowBackend newInstance(final String path, final Workflow
                     String.format("Invalid callee location, \"%s\" cannot be converted to URI.", path)));
                 workflowDir = ResolverUtil.resolveURItoLocalFile(encodedUri).toPath();
                 deleteAfterUse = false;
-            } else {
+            } else if (allowDownload) {
                 assert resolvedUrl.getProtocol().startsWith("http") : "Expected http URL but not " + resolvedUrl;
                 workflowDir = downloadAndExtractRemoteWorkflow(originalUrl);
                 deleteAfterUse = true;
+            } else {
+                return null;
             }
         } catch (IOException e) {
             if (e.getMessage().contains("Server returned HTTP response code: 403")) {
@@ -227,17 +457,7 @@ public static LocalWorkflowBackend newInstance(final String path, final Workflow
         // slashes will be added after the scheme part of the URI, however the value will be accessed with only one slash
         // after the scheme. Hence, convert to file first. Furthermore, keys will be accessed with normalized URIs. See AP-7589.
         var localUri = workflowDir.toFile().toURI().normalize();
-        var ou = originalUrl; // Just to make the compiler happy
-        final var localWorkflowBackend = CACHE.get(localUri, () -> loadWorkflow(localUri, ou));
-        localWorkflowBackend.lock();
-
-        localWorkflowBackend.m_deleteAfterUse = deleteAfterUse;
-
-        synchronized (CALLER_MAP) {
-            CALLER_MAP.computeIfAbsent(callingWorkflow, k -> new HashSet<>()).add(localUri);
-        }
-
-        return localWorkflowBackend;
+        return new CalleeLocation(localUri, originalUrl, deleteAfterUse);
     }
 
     /**
@@ -245,9 +465,11 @@ public static LocalWorkflowBackend newInstance(final String path, final Workflow
      *
      * @param localUri the physical location in the local file system; may be a temporary copy of the workflow
      * @param originalUrl the original URL as configured by the user, e.g. knime://knime.workflow/../Called
+     * @param primary whether this is the first instance of the callee workflow. Only the primary instance is
+     *            registered with the workbench, additional instances are loaded as separate projects.
      * @return a new local backend
      */
-    private static LocalWorkflowBackend loadWorkflow(final URI localUri, final URL originalUrl)
+    private static LocalWorkflowBackend loadWorkflow(final URI localUri, final URL originalUrl, final boolean primary)
         throws IOException, InvalidSettingsException, CanceledExecutionException, UnsupportedWorkflowVersionException,
         LockFailedException, CoreException {
         var file = new File(localUri);
@@ -308,8 +530,8 @@ private static LocalWorkflowBackend loadWorkflow(final URI localUri, final URL o
             // running in GUI mode
 
             // classic UI
-            var wfm = (WorkflowManager)ProjectWorkflowMap.getWorkflow(localUri);
-            if (wfm == null) {
+            var wfm = primary ? (WorkflowManager)ProjectWorkflowMap.getWorkflow(localUri) : null;
+            if (wfm == null && primary) {
                 // modern UI
                 wfm = WorkflowServiceProjects.getProjectIdAt(file.toPath()) //
                     .flatMap(id -> ProjectManager.getInstance().getProject(id)) //
@@ -341,15 +563,19 @@ private static LocalWorkflowBackend loadWorkflow(final URI localUri, final URL o
                 );
                 wfm = loadResult.getWorkflowManager();
 
-                // classic UI
-                ProjectWorkflowMap.putWorkflow(localUri, wfm);
+                if (primary) {
+                    // classic UI
+                    ProjectWorkflowMap.putWorkflow(localUri, wfm);
 
-                // modern UI
-                WorkflowServiceProjects.registerProject(wfm);
+                    // modern UI
+                    WorkflowServiceProjects.registerProject(wfm);
+                }
 
             }
             var localWorkflowBackend = new LocalWorkflowBackend(localUri, wfm);
-            ProjectWorkflowMap.registerClientTo(localUri, localWorkflowBackend);
+            if (primary) {
+                ProjectWorkflowMap.registerClientTo(localUri, localWorkflowBackend);
+            }
             return localWorkflowBackend;
         }
     }
@@ -395,16 +621,40 @@ public static void cleanCalledWorkflows(final WorkflowManager callingWorkflow) {
 
     private final WorkflowManager m_manager;
 
-    private final ReentrantLock m_inUse = new ReentrantLock();
+    /** Set while the instance is borrowed from its pool, reset on {@link #close()}. */
+    private final AtomicBoolean m_inUse = new AtomicBoolean();
 
-    private boolean m_discardAfterUse;
+    /** The pool this instance belongs to, see {@link #setPool(LocalWorkflowBackendPool, boolean)}. */
+    private LocalWorkflowBackendPool m_pool;
 
-    // set when the workflow has been downloaded from the server into a temporary directory
-    private boolean m_deleteAfterUse;
+    /** Whether this is the first instance of the pool, i.e., the one registered with the workbench. */
+    private boolean m_primary;
 
     private LocalWorkflowBackend(final URI uri, final WorkflowManager m) {
         m_uri = uri;
         m_manager = m;
+        // the output resources are read via CallWorkflowUtil#openOutputResource only
+        CallWorkflowUtil.acceptGrowingOutputs(m);
+    }
+
+    /**
+     * @return a rough estimate of the heap occupied by the loaded workflow, based on the number of nodes it contains
+     */
+    long estimateHeapSize() {
+        return countNodes(m_manager) * ESTIMATED_HEAP_BYTES_PER_NODE;
+    }
+
+    private static long countNodes(final WorkflowManager wfm) {
+        var count = 0L;
+        for (var nc : wfm.getNodeContainers()) {
+            count++;
+            if (nc instanceof WorkflowManager metanode) {
+                count += countNodes(metanode);
+            } else if (nc instanceof SubNodeContainer component) {
+                count += countNodes(component.getWorkflowManager());
+            }
+        }
+        return count;
     }
 
     /** {@inheritDoc} */
@@ -454,6 +704,33 @@ public Map<String, ResourceContentType> getOutputResourceDescription() {
 
     @Override
     public InputStream openOutputResource(final String name) throws IOException {
+        // tables may still be written by the Workflow Output node
+        return CallWorkflowUtil.openOutputResource(getOutputResource(name));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The Workflow Output nodes of a local callee write their results to local files. Tables that are still being
+     * written are not provided as file.
+     */
+    @Override
+    public Optional<File> getOutputResourceFile(final String name) throws IOException {
+        var resource = getOutputResource(name);
+        if (!"file".equalsIgnoreCase(resource.getScheme())) {
+            return Optional.empty();
+        }
+        try {
+            var file = new File(resource);
+            // a table that is still being written is read through the growing stream instead
+            return file.isFile() && !CallWorkflowUtil.isBeingWritten(file) ? Optional.of(file) : Optional.empty();
+        } catch (IllegalArgumentException e) { // NOSONAR not a plain local file, e.g., a UNC path with authority
+            return Optional.empty();
+        }
+    }
+
+    private URI getOutputResource(final String name) throws IOException {
+        // tables may still be written, see the constructor
         var externalNodeData = m_manager.getExternalOutputs().get(name);
         if (externalNodeData == null) {
             throw new IOException(String.format("No output with identifier %s", name));
@@ -462,7 +739,7 @@ public InputStream openOutputResource(final String name) throws IOException {
         if (resource == null) {
             throw new IOException(String.format("No output resource for output with identifier %s", name));
         }
-        return resource.toURL().openStream();
+        return resource;
     }
 
     /** {@inheritDoc} */
@@ -478,6 +755,10 @@ public WorkflowState execute(final Map<String, ExternalNodeData> input) throws E
     public WorkflowState executeAsWorkflowService(final Map<String, ExternalNodeData> input) throws Exception {
         updateWorkflow(input);
         m_manager.executeAllAndWaitUntilDone();
+        return getWorkflowState();
+    }
+
+    private WorkflowState getWorkflowState() {
         var state = m_manager.getNodeContainerState();
         if (state.isExecuted()) {
             return WorkflowState.EXECUTED;
@@ -488,6 +769,69 @@ public WorkflowState executeAsWorkflowService(final Map<String, ExternalNodeData
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Does not block a thread while the callee workflow executes, completion is detected via a state listener on the
+     * callee workflow. Output values and the report are collected on the KNIME thread pool afterwards.
+     *
+     * Cancelling the returned future cancels the execution of the callee workflow. The future is completed only once
+     * the execution has actually stopped, such that the callee workflow is idle when waiting for it returns.
+     */
+    @Override
+    public CompletableFuture<BackendExecutionResult> executeAsync(final RptOutputFormat reportFormatOrNull,
+        final Map<String, ExternalNodeData> input) {
+        final var finished = new AtomicBoolean();
+        final var cancelRequested = new AtomicBoolean();
+        final var future = new CompletableFuture<BackendExecutionResult>() {
+            @Override
+            public boolean cancel(final boolean mayInterruptIfRunning) {
+                if (isDone() || finished.get() || !cancelRequested.compareAndSet(false, true)) {
+                    return false;
+                }
+                // completed by the listener once the execution has stopped
+                m_manager.getParent().cancelExecution(m_manager);
+                return true;
+            }
+        };
+        final var start = System.currentTimeMillis();
+        try {
+            updateWorkflow(input);
+        } catch (Exception e) { // NOSONAR all failures are reported via the future
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        // state change events are fired while holding the workflow lock, hence collect the results elsewhere
+        final var collectResults = ThreadUtils.runnableWithContext(() -> {
+            try {
+                future.complete(BackendExecutionResult.collect(this, getWorkflowState(), reportFormatOrNull,
+                    System.currentTimeMillis() - start));
+            } catch (RuntimeException e) { // NOSONAR all failures are reported via the future
+                future.completeExceptionally(e);
+            }
+        });
+        final var listener = new NodeStateChangeListener() {
+            @Override
+            public void stateChanged(final NodeStateEvent event) {
+                if (!m_manager.getNodeContainerState().isExecutionInProgress() && finished.compareAndSet(false, true)) {
+                    m_manager.removeNodeStateChangeListener(this);
+                    if (cancelRequested.get()) {
+                        future.completeExceptionally(new CancellationException("Execution of callee was canceled"));
+                    } else {
+                        KNIMEConstants.GLOBAL_THREAD_POOL.enqueue(collectResults);
+                    }
+                }
+            }
+        };
+
+        m_manager.addNodeStateChangeListener(listener);
+        m_manager.executeAll();
+        // no state change is fired if there is nothing to execute
+        listener.stateChanged(new NodeStateEvent(m_manager));
+        return future;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -518,32 +862,57 @@ public String getWorkflowMessage() {
         return m_manager.getParent().printNodeSummary(m_manager.getID(), 0);
     }
 
-    void lock() throws InterruptedException {
-        m_inUse.lockInterruptibly();
-    }
-
-    boolean isInUse() {
-        return m_inUse.isLocked();
+    void setPool(final LocalWorkflowBackendPool pool, final boolean primary) {
+        m_pool = pool;
+        m_primary = primary;
     }
 
-    void setDiscardAfterUse() {
-        m_discardAfterUse = true;
+    boolean isPrimary() {
+        return m_primary;
     }
 
     /** {@inheritDoc} */
     @Override
     public void close() throws Exception {
+        if (!m_inUse.compareAndSet(true, false)) {
+            return;
+        }
         try {
             m_manager.getParent().cancelExecution(m_manager);
-            if (m_discardAfterUse) {
-                discard();
-            }
-            KNIMETimer.getInstance().schedule(new CacheCleanUpTask(), TimeUnit.SECONDS.toMillis(65L));
         } finally {
-            m_inUse.unlock();
+            m_pool.giveBack(this);
+            KNIMETimer.getInstance().schedule(new CacheCleanUpTask(), TimeUnit.SECONDS.toMillis(65L));
+        }
+    }
+
+    /**
+     * Usage statistics of the pool of instances kept for a callee workflow.
+     *
+     * @param size the number of loaded instances
+     * @param idle the number of instances that are currently not in use
+     * @param maxSize the maximum number of instances
+     * @param borrowCount how often an instance has been requested
+     * @param totalBorrowWait the accumulated time callers waited for an instance (including loading it)
+     * @param maxBorrowWait the longest time a caller waited for an instance (including loading it)
+     */
+    public record PoolStatistics(int size, int idle, int maxSize, long borrowCount, Duration totalBorrowWait,
+        Duration maxBorrowWait) {
+
+        /** @return the average time callers waited for an instance */
+        public Duration averageBorrowWait() {
+            return borrowCount == 0 ? Duration.ZERO : totalBorrowWait.dividedBy(borrowCount);
         }
     }
 
+    /**
+     * @return usage statistics for each callee workflow currently held in the cache, e.g., to size the pool via
+     *         {@link LocalWorkflowBackendPool#PROPERTY_MAX_SIZE}
+     */
+    public static Map<URI, PoolStatistics> getPoolStatistics() {
+        return CACHE.asMap().entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getStatistics()));
+    }
+
     /**
      * @implNote It is essential that this remains a static inner class and is not inlined as an inner class / anonymous
      *           class / lambda. These will have an implicit reference to the outer class ({@code this$0}). Here, the
@@ -557,11 +926,12 @@ private static class CacheCleanUpTask extends TimerTask {
         @Override
         public void run() {
             CACHE.cleanUp();
+            CACHE.asMap().values().forEach(LocalWorkflowBackendPool::evictIdleInstances);
         }
     }
 
     void discard() {
-        if (Boolean.getBoolean("java.awt.headless")) {
+        if (Boolean.getBoolean("java.awt.headless") || !m_primary) {
             m_manager.getParent().removeProject(m_manager.getID());
         } else {
             // classic UI
@@ -571,9 +941,6 @@ void discard() {
             // modern UI
             WorkflowServiceProjects.removeProject(new File(m_uri).toPath());
         }
-        if (m_deleteAfterUse) {
-            FileUtil.deleteRecursively(new File(m_uri));
-        }
     }
 
     /**
@@ -622,4 +989,26 @@ public void loadWorkflow() throws Exception {
     public void updateWorkflow(final Map<String, ExternalNodeData> input) throws Exception {
         m_manager.setInputNodes(input);
     }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The callee workflow is executed in the same JVM.
+     */
+    @Override
+    public boolean supportsInProcessTransfer() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The Workflow Input nodes of the callee workflow read their resources via
+     * {@link org.knime.workflowservices.knime.util.CallWorkflowUtil#openInputResource(java.net.URI)}. Tables are
+     * usually handed over in-process, though.
+     */
+    @Override
+    public boolean supportsStreamingInput() {
+        return true;
+    }
 }
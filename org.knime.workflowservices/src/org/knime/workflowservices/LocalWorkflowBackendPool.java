@@ -0,0 +1,476 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.workflowservices;
+
+import java.io.File;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.FileUtil;
+import org.knime.workflowservices.LocalWorkflowBackend.PoolStatistics;
+
+/**
+ * A pool of independently loaded {@link LocalWorkflowBackend} instances of the same callee workflow. Instances are
+ * borrowed exclusively via {@link #borrow()} and handed back via {@link #giveBack(LocalWorkflowBackend)}. If all
+ * instances are in use and the pool has not reached its maximum size, an additional instance is loaded, otherwise the
+ * caller waits until another caller hands back its instance.
+ *
+ * The first instance of a pool is the <em>primary</em> instance. In the KNIME Analytics Platform, this is the instance
+ * that is registered with the workbench (and might be the workflow the user has opened in an editor). Any additional
+ * instance is loaded as a separate, unregistered project.
+ *
+ * Surplus (non-primary) instances that have not been used for a while are discarded, see
+ * {@link #evictIdleInstances()}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class LocalWorkflowBackendPool {
+
+    /**
+     * System property to set the maximum number of instances that are kept per callee workflow. Defaults to 1, i.e.,
+     * concurrent calls to the same callee workflow are executed one after another.
+     */
+    static final String PROPERTY_MAX_SIZE = "knime.workflowservices.local.pool.maxSize";
+
+    /**
+     * System property to set the number of seconds after which an unused surplus instance is discarded.
+     */
+    static final String PROPERTY_IDLE_TIMEOUT = "knime.workflowservices.local.pool.idleTimeoutSeconds";
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(LocalWorkflowBackendPool.class);
+
+    /** Waiting longer than this for an instance is logged on debug level. */
+    private static final long LOG_WAIT_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /** Loads a new instance of the callee workflow. */
+    @FunctionalInterface
+    interface Loader {
+        /**
+         * @param primary whether the instance is the first instance of the pool
+         * @return a newly loaded instance
+         * @throws Exception if the workflow cannot be loaded
+         */
+        LocalWorkflowBackend load(boolean primary) throws Exception;
+    }
+
+    /** @return the configured maximum number of instances per callee workflow, at least 1 */
+    static int getConfiguredMaxSize() {
+        return Math.max(1, Integer.getInteger(PROPERTY_MAX_SIZE, 1));
+    }
+
+    private static long getConfiguredIdleTimeoutMillis() {
+        return TimeUnit.SECONDS.toMillis(Math.max(0L, Long.getLong(PROPERTY_IDLE_TIMEOUT, 60L)));
+    }
+
+    private final URI m_uri;
+
+    private final Loader m_loader;
+
+    private final int m_maxSize;
+
+    private final ReentrantLock m_lock = new ReentrantLock();
+
+    /** Signaled whenever an instance is handed back or a reserved slot becomes available again. */
+    private final Condition m_available = m_lock.newCondition();
+
+    /** Idle instances, most recently used last. */
+    private final Deque<IdleInstance> m_idle = new ArrayDeque<>();
+
+    /** All loaded instances, idle or borrowed. */
+    private final Set<LocalWorkflowBackend> m_instances = new HashSet<>();
+
+    /** Number of instances currently being loaded. */
+    private int m_loading;
+
+    /** Whether the primary instance is loaded or being loaded. */
+    private boolean m_hasPrimary;
+
+    private boolean m_invalidated;
+
+    /** Set when the workflow has been downloaded into a temporary directory that is deleted with the last instance. */
+    private boolean m_deleteAfterUse;
+
+    /** Estimated heap size of a fully grown pool in kilobytes, see {@link #getEstimatedWeightKB()}. */
+    private int m_estimatedWeightKB;
+
+    private long m_borrowCount;
+
+    private long m_totalWaitNanos;
+
+    private long m_maxWaitNanos;
+
+    /**
+     * @param uri the location of the callee workflow in the local file system
+     * @param loader loads new instances of the callee workflow
+     */
+    LocalWorkflowBackendPool(final URI uri, final Loader loader) {
+        this(uri, loader, getConfiguredMaxSize());
+    }
+
+    LocalWorkflowBackendPool(final URI uri, final Loader loader, final int maxSize) {
+        m_uri = uri;
+        m_loader = loader;
+        m_maxSize = maxSize;
+    }
+
+    /**
+     * Loads the primary instance. Called once when the pool is put into the cache, such that the cache can weigh the
+     * pool, see {@link #getEstimatedWeightKB()}.
+     *
+     * @param borrow whether the instance is borrowed by the caller right away, rather than kept as idle instance. The
+     *            caller that loads the pool borrows the primary instance, since the cache may evict the pool (and
+     *            thereby {@link #invalidate()} it) as soon as it has been put into the cache.
+     * @return the primary instance
+     * @throws Exception if loading the workflow fails
+     */
+    LocalWorkflowBackend loadPrimary(final boolean borrow) throws Exception {
+        final var start = System.nanoTime();
+        final var backend = m_loader.load(true);
+        backend.setPool(this, true);
+        final var weightKB = Math.min(Integer.MAX_VALUE, backend.estimateHeapSize() / 1024L * m_maxSize);
+        m_lock.lock();
+        try {
+            m_hasPrimary = true;
+            m_instances.add(backend);
+            if (borrow) {
+                recordBorrow(start);
+            } else {
+                m_idle.addLast(new IdleInstance(backend, System.currentTimeMillis()));
+            }
+            m_estimatedWeightKB = (int)Math.max(1L, weightKB);
+        } finally {
+            m_lock.unlock();
+        }
+        return backend;
+    }
+
+    /**
+     * Loads an instance that does not belong to any cached pool, e.g., because the pool was evicted from the cache
+     * right after it had been loaded. The instance is never the primary instance and is discarded once it is handed
+     * back.
+     *
+     * @param uri the location of the callee workflow in the local file system
+     * @param loader loads the instance
+     * @return the borrowed instance
+     * @throws Exception if loading the workflow fails
+     */
+    static LocalWorkflowBackend borrowDetached(final URI uri, final Loader loader) throws Exception {
+        final var pool = new LocalWorkflowBackendPool(uri, loader, 1);
+        // the primary instance is the one registered with the workbench, which belongs to the cached pool
+        pool.m_hasPrimary = true;
+        final var backend = pool.borrow();
+        pool.invalidate();
+        return backend;
+    }
+
+    /**
+     * @return the estimated heap size of the pool in kilobytes, assuming it grows to its maximum size. Computed once,
+     *         when the primary instance is loaded.
+     */
+    int getEstimatedWeightKB() {
+        m_lock.lock();
+        try {
+            return m_estimatedWeightKB;
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    /**
+     * Borrows an instance exclusively. Returns an idle instance if possible, loads a new one if the pool is not
+     * exhausted, or waits for another caller to hand back its instance otherwise.
+     *
+     * @return an instance that must be handed back via {@link #giveBack(LocalWorkflowBackend)}, or {@code null} if
+     *         the pool has been invalidated and a new pool needs to be used instead
+     * @throws InterruptedException if interrupted while waiting for an instance
+     * @throws Exception if loading a new instance fails
+     */
+    LocalWorkflowBackend borrow() throws Exception {
+        final var start = System.nanoTime();
+        final boolean primary;
+        m_lock.lockInterruptibly();
+        try {
+            while (true) {
+                if (m_invalidated) {
+                    return null;
+                }
+                final var idle = m_idle.pollLast();
+                if (idle != null) {
+                    recordBorrow(start);
+                    return idle.m_backend;
+                }
+                if (m_instances.size() + m_loading < m_maxSize) {
+                    m_loading++;
+                    primary = !m_hasPrimary;
+                    m_hasPrimary = true;
+                    break;
+                }
+                m_available.await();
+            }
+        } finally {
+            m_lock.unlock();
+        }
+        return loadNewInstance(primary, start);
+    }
+
+    /**
+     * Like {@link #borrow()} but never waits for other callers to hand back an instance.
+     *
+     * @return an instance or {@code null} if the pool is exhausted or invalidated
+     * @throws Exception if loading a new instance fails
+     */
+    LocalWorkflowBackend tryBorrow() throws Exception {
+        final var start = System.nanoTime();
+        final boolean primary;
+        m_lock.lockInterruptibly();
+        try {
+            if (m_invalidated) {
+                return null;
+            }
+            final var idle = m_idle.pollLast();
+            if (idle != null) {
+                recordBorrow(start);
+                return idle.m_backend;
+            }
+            if (m_instances.size() + m_loading >= m_maxSize) {
+                return null;
+            }
+            m_loading++;
+            primary = !m_hasPrimary;
+            m_hasPrimary = true;
+        } finally {
+            m_lock.unlock();
+        }
+        return loadNewInstance(primary, start);
+    }
+
+    private LocalWorkflowBackend loadNewInstance(final boolean primary, final long start) throws Exception {
+        LocalWorkflowBackend backend = null;
+        var poolSize = 0;
+        try {
+            backend = m_loader.load(primary);
+            backend.setPool(this, primary);
+        } finally {
+            m_lock.lock();
+            try {
+                m_loading--;
+                if (backend == null) {
+                    // loading failed, free the slot for other callers
+                    m_hasPrimary &= !primary;
+                    m_available.signal();
+                } else {
+                    m_instances.add(backend);
+                    poolSize = m_instances.size();
+                    recordBorrow(start);
+                }
+            } finally {
+                m_lock.unlock();
+            }
+        }
+        LOGGER.debugWithFormat("Loaded %s instance of callee workflow \"%s\" (%d/%d instances)",
+            primary ? "primary" : "additional", m_uri, poolSize, m_maxSize);
+        return backend;
+    }
+
+    /** Must be called while holding the lock. */
+    private void recordBorrow(final long start) {
+        final var waitNanos = System.nanoTime() - start;
+        m_borrowCount++;
+        m_totalWaitNanos += waitNanos;
+        m_maxWaitNanos = Math.max(m_maxWaitNanos, waitNanos);
+        if (waitNanos > LOG_WAIT_THRESHOLD_NANOS) {
+            LOGGER.debugWithFormat("Waited %d ms for an instance of callee workflow \"%s\" (pool size %d)",
+                TimeUnit.NANOSECONDS.toMillis(waitNanos), m_uri, m_maxSize);
+        }
+    }
+
+    /**
+     * Hands back an instance previously obtained via {@link #borrow()}. The instance is discarded if the pool has been
+     * invalidated in the meantime.
+     *
+     * @param backend the instance to hand back
+     */
+    void giveBack(final LocalWorkflowBackend backend) {
+        final boolean discard;
+        m_lock.lock();
+        try {
+            discard = m_invalidated;
+            if (discard) {
+                m_instances.remove(backend);
+                m_hasPrimary &= !backend.isPrimary();
+            } else {
+                m_idle.addLast(new IdleInstance(backend, System.currentTimeMillis()));
+            }
+            m_available.signal();
+        } finally {
+            m_lock.unlock();
+        }
+        if (discard) {
+            backend.discard();
+            deleteWorkflowIfUnused();
+        }
+    }
+
+    /** @return whether the pool has been invalidated, see {@link #invalidate()} */
+    boolean isInvalidated() {
+        m_lock.lock();
+        try {
+            return m_invalidated;
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    /**
+     * Discards all idle instances and marks the pool as invalid. Borrowed instances are discarded when they are handed
+     * back.
+     */
+    void invalidate() {
+        final List<LocalWorkflowBackend> toDiscard = new ArrayList<>();
+        m_lock.lock();
+        try {
+            m_invalidated = true;
+            m_idle.forEach(idle -> toDiscard.add(idle.m_backend));
+            m_idle.clear();
+            m_instances.removeAll(toDiscard);
+            m_available.signalAll();
+        } finally {
+            m_lock.unlock();
+        }
+        toDiscard.forEach(LocalWorkflowBackend::discard);
+        deleteWorkflowIfUnused();
+    }
+
+    /**
+     * Discards surplus instances that have been idle for longer than the configured idle timeout. The primary instance
+     * is kept, it is discarded when the pool is invalidated.
+     */
+    void evictIdleInstances() {
+        final var threshold = System.currentTimeMillis() - getConfiguredIdleTimeoutMillis();
+        final List<LocalWorkflowBackend> toDiscard = new ArrayList<>();
+        m_lock.lock();
+        try {
+            final var it = m_idle.iterator();
+            while (it.hasNext()) {
+                final var idle = it.next();
+                if (!idle.m_backend.isPrimary() && idle.m_lastUsed < threshold) {
+                    it.remove();
+                    m_instances.remove(idle.m_backend);
+                    toDiscard.add(idle.m_backend);
+                }
+            }
+        } finally {
+            m_lock.unlock();
+        }
+        if (!toDiscard.isEmpty()) {
+            LOGGER.debugWithFormat("Discarding %d idle instance(s) of callee workflow \"%s\"", toDiscard.size(), m_uri);
+            toDiscard.forEach(LocalWorkflowBackend::discard);
+        }
+    }
+
+    /**
+     * @param deleteAfterUse whether the workflow directory is a temporary copy that is deleted once the pool has been
+     *            invalidated and all its instances are discarded
+     */
+    void setDeleteAfterUse(final boolean deleteAfterUse) {
+        m_lock.lock();
+        try {
+            m_deleteAfterUse = deleteAfterUse;
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    private void deleteWorkflowIfUnused() {
+        final boolean delete;
+        m_lock.lock();
+        try {
+            delete = m_deleteAfterUse && m_invalidated && m_instances.isEmpty() && m_loading == 0;
+            if (delete) {
+                m_deleteAfterUse = false;
+            }
+        } finally {
+            m_lock.unlock();
+        }
+        if (delete) {
+            FileUtil.deleteRecursively(new File(m_uri));
+        }
+    }
+
+    /** @return a snapshot of the pool's usage statistics */
+    PoolStatistics getStatistics() {
+        m_lock.lock();
+        try {
+            return new PoolStatistics(m_instances.size(), m_idle.size(), m_maxSize, m_borrowCount,
+                Duration.ofNanos(m_totalWaitNanos), Duration.ofNanos(m_maxWaitNanos));
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    /** An instance that is currently not borrowed. */
+    private static final class IdleInstance {
+
+        private final LocalWorkflowBackend m_backend;
+
+        private final long m_lastUsed;
+
+        IdleInstance(final LocalWorkflowBackend backend, final long lastUsed) {
+            m_backend = backend;
+            m_lastUsed = lastUsed;
+        }
+    }
+}
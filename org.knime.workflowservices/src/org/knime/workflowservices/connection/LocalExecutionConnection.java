@@ -29,6 +29,8 @@
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.core.runtime.Platform;
 import org.knime.core.node.workflow.NodeContext;
@@ -76,6 +78,21 @@ public IWorkflowBackend createWorkflowBackend() throws IOException {
         }
     }
 
+    @Override
+    public Optional<IWorkflowBackend> tryCreateWorkflowBackend() throws IOException {
+        try {
+            return LocalWorkflowBackend.tryNewInstance(m_configuration.getWorkflowPath(), m_wfm)
+                .map(IWorkflowBackend.class::cast);
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> preloadWorkflow() {
+        return LocalWorkflowBackend.preload(m_configuration.getWorkflowPath(), m_wfm);
+    }
+
     /**
      * @param configuration provides the workflow path
      * @deprecated
@@ -22,6 +22,8 @@
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import org.knime.core.util.hub.NamedItemVersion;
 import org.knime.workflowservices.ExecutionContext;
@@ -43,6 +45,28 @@ public interface WorkflowExecutionConnector {
      */
     IWorkflowBackend createWorkflowBackend() throws IOException;
 
+    /**
+     * Creates an additional workflow execution service instance, e.g., to execute the workflow concurrently, if one
+     * is available without waiting. The default implementation always creates one, which is suitable for remote
+     * connections where every instance corresponds to a new job.
+     *
+     * @return the workflow execution service implementation, empty if none is available right now
+     * @throws IOException
+     */
+    default Optional<IWorkflowBackend> tryCreateWorkflowBackend() throws IOException {
+        return Optional.of(createWorkflowBackend());
+    }
+
+    /**
+     * Prepares the workflow for execution in the background, such that the first {@link #createWorkflowBackend()}
+     * does not pay the full cost of loading the workflow. The default implementation does nothing.
+     *
+     * @return a future that completes once the workflow is ready, or exceptionally if it could not be prepared
+     */
+    default CompletableFuture<Void> preloadWorkflow() {
+        return CompletableFuture.completedFuture(null);
+    }
+
     /**
      * Returns the execution contexts of the connected space in case it is connected to a Hub. Otherwise it'll return an
      * empty list.
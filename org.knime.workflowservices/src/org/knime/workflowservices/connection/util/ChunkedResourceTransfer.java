@@ -0,0 +1,345 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.workflowservices.connection.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.input.BoundedInputStream;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.util.CheckUtils;
+import org.knime.core.util.ThreadUtils;
+import org.knime.core.util.exception.ServerErrorAccessException;
+
+/**
+ * Transfers port object resources of remotely executed callee workflows in chunks that are sent concurrently, rather
+ * than as one sequential stream. This speeds up the transfer of large resources over connections with a high latency,
+ * where a single stream is limited by the round trip time rather than by the bandwidth.
+ *
+ * Downloads use HTTP range requests if the server supports them and fall back to a single request otherwise. Uploads
+ * are sent as parts, the requests for the individual parts are created by the caller since their format depends on the
+ * server, e.g., pre-signed URLs per part. Each chunk is retried according to the {@link BackoffPolicy} on server
+ * errors and broken connections.
+ *
+ * The number of concurrent requests and the chunk size are configured via {@value #PROPERTY_PARALLELISM} and
+ * {@value #PROPERTY_CHUNK_SIZE_MB}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class ChunkedResourceTransfer {
+
+    /** System property for the maximum number of chunks that are transferred concurrently. Defaults to 4. */
+    public static final String PROPERTY_PARALLELISM = "knime.workflowservices.transfer.parallelism";
+
+    /**
+     * System property for the size of the chunks in megabytes. Resources that are not larger than one chunk are
+     * transferred with a single request. Defaults to 16.
+     */
+    public static final String PROPERTY_CHUNK_SIZE_MB = "knime.workflowservices.transfer.chunkSizeMB";
+
+    /** Creates the request for a part of an upload. */
+    @FunctionalInterface
+    public interface PartRequestFactory {
+
+        /**
+         * @param partNumber the number of the part, starting at 1
+         * @param offset the offset of the part in the uploaded file
+         * @param length the number of bytes in the part
+         * @return the request without body and method, the part is sent with {@code PUT}
+         * @throws IOException if the request cannot be created, e.g., because requesting an upload URL failed
+         */
+        HttpRequest.Builder create(int partNumber, long offset, long length) throws IOException;
+    }
+
+    private final HttpClient m_client;
+
+    private final BackoffPolicy m_backoffPolicy;
+
+    private final int m_parallelism;
+
+    private final long m_chunkSize;
+
+    /**
+     * Creates a transfer that is configured via {@value #PROPERTY_PARALLELISM} and {@value #PROPERTY_CHUNK_SIZE_MB}.
+     *
+     * @param client the client to send the requests with
+     * @param backoffPolicy how often and when failed chunks are retried
+     */
+    public ChunkedResourceTransfer(final HttpClient client, final BackoffPolicy backoffPolicy) {
+        this(client, backoffPolicy, Integer.getInteger(PROPERTY_PARALLELISM, 4),
+            Math.max(1, Long.getLong(PROPERTY_CHUNK_SIZE_MB, 16)) << 20);
+    }
+
+    ChunkedResourceTransfer(final HttpClient client, final BackoffPolicy backoffPolicy, final int parallelism,
+        final long chunkSize) {
+        CheckUtils.checkArgument(chunkSize > 0, "Chunk size <= 0: %d", chunkSize);
+        m_client = client;
+        m_backoffPolicy = backoffPolicy;
+        m_parallelism = Math.max(1, parallelism);
+        m_chunkSize = chunkSize;
+    }
+
+    /**
+     * Downloads a resource to a file. The file is created or overwritten.
+     *
+     * @param uri the location of the resource
+     * @param headers additional request headers, e.g., for authentication
+     * @param target the file to write the resource to
+     * @throws IOException if the download failed, also after retrying
+     * @throws InterruptedException if interrupted while waiting for the download
+     */
+    public void download(final URI uri, final Map<String, String> headers, final Path target)
+        throws IOException, InterruptedException {
+        final var length = getLengthIfRangesSupported(uri, headers);
+        if (length <= m_chunkSize) {
+            withBackoff(() -> {
+                final var response = send(request(uri, headers).GET(), BodyHandlers.ofInputStream());
+                try (InputStream in = response.body()) {
+                    checkStatus(response, uri);
+                    try (var out = Files.newOutputStream(target)) {
+                        final var buffer = new byte[1 << 16];
+                        for (int read = readBody(in, buffer, uri); read >= 0; read = readBody(in, buffer, uri)) {
+                            out.write(buffer, 0, read);
+                        }
+                    }
+                }
+                return null;
+            });
+            return;
+        }
+        try (var channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            final List<Callable<Void>> chunks = new ArrayList<>();
+            for (long offset = 0; offset < length; offset += m_chunkSize) {
+                final var start = offset;
+                final var end = Math.min(length, offset + m_chunkSize) - 1;
+                chunks.add(() -> withBackoff(() -> {
+                    downloadRange(uri, headers, start, end, channel);
+                    return null;
+                }));
+            }
+            runConcurrently(chunks);
+        }
+    }
+
+    /**
+     * Uploads a file in parts that are sent concurrently.
+     *
+     * @param source the file to upload
+     * @param parts creates the request for each part
+     * @return the responses to the part requests, in order of the parts, e.g., to complete a multipart upload with the
+     *         identifiers of the parts
+     * @throws IOException if the upload failed, also after retrying
+     * @throws InterruptedException if interrupted while waiting for the upload
+     */
+    public List<HttpResponse<String>> upload(final Path source, final PartRequestFactory parts)
+        throws IOException, InterruptedException {
+        final var length = Files.size(source);
+        final List<Callable<HttpResponse<String>>> chunks = new ArrayList<>();
+        var partNumber = 1;
+        for (long offset = 0; offset < length || partNumber == 1; offset += m_chunkSize) {
+            final var part = partNumber++;
+            final var start = offset;
+            final var partLength = Math.min(length - offset, m_chunkSize);
+            chunks.add(() -> withBackoff(() -> {
+                final var publisher = BodyPublishers.fromPublisher(BodyPublishers.ofInputStream(() -> {
+                    try {
+                        final var channel = FileChannel.open(source, StandardOpenOption.READ).position(start);
+                        return new BoundedInputStream(Channels.newInputStream(channel), partLength);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e.getMessage(), e);
+                    }
+                }), partLength);
+                final var builder = parts.create(part, start, partLength);
+                final var response = send(builder.PUT(publisher), BodyHandlers.ofString());
+                checkStatus(response, response.request().uri());
+                return response;
+            }));
+        }
+        return runConcurrently(chunks);
+    }
+
+    /**
+     * @return the length of the resource if the server supports range requests for it, -1 otherwise
+     */
+    private long getLengthIfRangesSupported(final URI uri, final Map<String, String> headers)
+        throws InterruptedException {
+        try {
+            final var response = m_client.send(request(uri, headers).method("HEAD", BodyPublishers.noBody()).build(),
+                BodyHandlers.discarding());
+            if (response.statusCode() / 100 != 2 || response.headers().allValues("Accept-Ranges").stream()
+                .noneMatch(value -> value.trim().equalsIgnoreCase("bytes"))) {
+                return -1;
+            }
+            return response.headers().firstValueAsLong("Content-Length").orElse(-1);
+        } catch (IOException e) { // NOSONAR not all servers support HEAD, fall back to a single request
+            return -1;
+        }
+    }
+
+    private void downloadRange(final URI uri, final Map<String, String> headers, final long start, final long end,
+        final FileChannel channel) throws IOException, InterruptedException {
+        final var response = send(request(uri, headers).header("Range", "bytes=" + start + "-" + end).GET(),
+            BodyHandlers.ofInputStream());
+        try (InputStream in = response.body()) {
+            checkStatus(response, uri);
+            if (response.statusCode() != 206) {
+                throw new IOException("Server ignored the range request for " + uri);
+            }
+            final var buffer = new byte[1 << 16];
+            var position = start;
+            for (int read = readBody(in, buffer, uri); read >= 0; read = readBody(in, buffer, uri)) {
+                final var bytes = ByteBuffer.wrap(buffer, 0, read);
+                while (bytes.hasRemaining()) {
+                    position += channel.write(bytes, position);
+                }
+            }
+            if (position != end + 1) {
+                throw serverError("Incomplete chunk of " + uri + ", received " + (position - start) + " of "
+                    + (end + 1 - start) + " bytes", null);
+            }
+        }
+    }
+
+    private static HttpRequest.Builder request(final URI uri, final Map<String, String> headers) {
+        final var builder = HttpRequest.newBuilder(uri);
+        headers.forEach(builder::header);
+        return builder;
+    }
+
+    private <T> HttpResponse<T> send(final HttpRequest.Builder request, final HttpResponse.BodyHandler<T> handler)
+        throws IOException, InterruptedException {
+        try {
+            return m_client.send(request.build(), handler);
+        } catch (IOException e) {
+            // broken connections are retried like server errors
+            throw serverError(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the next bytes of a response body. Failures are reported as server errors, since they are caused by a
+     * broken connection rather than by the request, such that the chunk is retried.
+     */
+    private static int readBody(final InputStream body, final byte[] buffer, final URI uri) throws IOException {
+        try {
+            return body.read(buffer);
+        } catch (IOException e) {
+            throw serverError("Reading the response for " + uri + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static void checkStatus(final HttpResponse<?> response, final URI uri) throws IOException {
+        final var status = response.statusCode();
+        if (status >= 500) {
+            throw serverError("Server error " + status + " for " + uri, null);
+        } else if (status / 100 != 2) {
+            throw new IOException("Request for " + uri + " failed with status " + status);
+        }
+    }
+
+    private static ServerErrorAccessException serverError(final String message, final Throwable cause) {
+        final var exception = new ServerErrorAccessException(message);
+        if (cause != null) {
+            exception.initCause(cause);
+        }
+        return exception;
+    }
+
+    private <R> R withBackoff(final Callable<R> task) throws IOException, InterruptedException {
+        try {
+            return BackoffPolicy.doWithBackoff(m_backoffPolicy, task);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) { // NOSONAR the task only throws the exceptions above
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private <R> List<R> runConcurrently(final List<Callable<R>> chunks) throws IOException, InterruptedException {
+        final var pool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(m_parallelism);
+        final List<Future<R>> futures = new ArrayList<>(chunks.size());
+        try {
+            for (Callable<R> chunk : chunks) {
+                futures.add(pool.enqueue(ThreadUtils.callableWithContext(chunk)));
+            }
+            final List<R> results = new ArrayList<>(futures.size());
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            final var cause = e.getCause();
+            if (cause instanceof IOException ioe) {
+                throw ioe;
+            } else if (cause instanceof InterruptedException ie) {
+                throw ie;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        } finally {
+            // stops the remaining chunks if one of them failed
+            futures.forEach(f -> f.cancel(true));
+        }
+    }
+}
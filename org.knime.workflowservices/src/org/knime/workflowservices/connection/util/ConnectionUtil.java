@@ -22,12 +22,16 @@
 
 import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.knime.base.filehandling.remote.connectioninformation.port.ConnectionInformationPortObjectSpec;
 import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeLogger;
 import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.workflow.NodeContext;
 import org.knime.core.node.workflow.contextv2.LocalLocationInfo;
@@ -112,6 +116,14 @@ public enum SuccessfulJobRetentionPolicy {
      */
     public static final Duration DEFAULT_LOAD_TIMEOUT = Duration.ofSeconds(60);
 
+    /**
+     * System property to enable loading the callee workflow in the background as soon as a Call Workflow node is
+     * configured. Defaults to {@code false}.
+     */
+    public static final String PROPERTY_PRELOAD_ON_CONFIGURE = "knime.workflowservices.preloadOnConfigure";
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(ConnectionUtil.class);
+
     private static ServiceTracker<AbstractConnectionFactory, AbstractConnectionFactory> connectionServiceTracker;
 
     static {
@@ -154,9 +166,85 @@ public enum SuccessfulJobRetentionPolicy {
      */
     public static IWorkflowBackend createWorkflowBackend(final CallWorkflowConnectionConfiguration configuration)
         throws IOException, InvalidSettingsException {
-        var callWorkflowConnection = createConnection(configuration).orElseThrow(
+        return getConnection(configuration).createWorkflowBackend();
+    }
+
+    /**
+     * Creates up to {@code maxCount} workflow backends to execute the workflow concurrently. The first backend is
+     * created like in {@link #createWorkflowBackend(CallWorkflowConnectionConfiguration)}, further backends are only
+     * created if they are available without waiting, see {@link WorkflowExecutionConnector#tryCreateWorkflowBackend()}.
+     *
+     * @param configuration call workflow node connection service.
+     * @param maxCount the maximum number of backends to create, at least 1
+     * @return at least one and at most {@code maxCount} backends, the caller is responsible for closing them
+     * @throws IOException
+     * @throws InvalidSettingsException when no workflow execution service is present.
+     */
+    public static List<IWorkflowBackend> createWorkflowBackends(
+        final CallWorkflowConnectionConfiguration configuration, final int maxCount)
+        throws IOException, InvalidSettingsException {
+        var callWorkflowConnection = getConnection(configuration);
+        final List<IWorkflowBackend> backends = new ArrayList<>();
+        try {
+            backends.add(callWorkflowConnection.createWorkflowBackend());
+            while (backends.size() < maxCount) {
+                var backend = callWorkflowConnection.tryCreateWorkflowBackend();
+                if (backend.isEmpty()) {
+                    break;
+                }
+                backends.add(backend.get());
+            }
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(backends);
+            throw e;
+        }
+        return backends;
+    }
+
+    /**
+     * Closes all given backends, failures are logged.
+     *
+     * @param backends to close
+     */
+    public static void closeQuietly(final Collection<? extends IWorkflowBackend> backends) {
+        for (var backend : backends) {
+            try {
+                backend.close();
+            } catch (Exception e) { // NOSONAR
+                LOGGER.debug("Could not close workflow backend: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static WorkflowExecutionConnector getConnection(final CallWorkflowConnectionConfiguration configuration)
+        throws InvalidSettingsException {
+        return createConnection(configuration).orElseThrow(
             () -> new InvalidSettingsException("Can not create the workflow execution connection, configuration in a running job is not yet supported."));
-        return callWorkflowConnection.createWorkflowBackend();
+    }
+
+    /**
+     * Starts loading the configured callee workflow in the background if enabled via
+     * {@value #PROPERTY_PRELOAD_ON_CONFIGURE}. Meant to be called from {@code configure} such that the workflow is
+     * ready when the node is executed. Failures are only logged, they will surface again during execution.
+     *
+     * @param configuration call workflow node connection configuration
+     */
+    public static void preloadWorkflow(final CallWorkflowConnectionConfiguration configuration) {
+        if (!Boolean.getBoolean(PROPERTY_PRELOAD_ON_CONFIGURE) || configuration == null
+            || StringUtils.isBlank(configuration.getWorkflowPath())) {
+            return;
+        }
+        try {
+            createConnection(configuration).ifPresent(connector -> connector.preloadWorkflow()
+                .whenComplete((v, e) -> {
+                    if (e != null) {
+                        LOGGER.debug("Could not preload callee workflow " + configuration.getWorkflowPath() + ": "
+                            + e.getMessage(), e);
+                    }
+                }));
+        } catch (RuntimeException e) { // NOSONAR preloading is best effort only
+            LOGGER.debug("Could not preload callee workflow: " + e.getMessage(), e);
+        }
     }
 
     /**
@@ -0,0 +1,275 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.workflowservices.connection.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.IOUtils;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.util.ThreadUtils;
+import org.knime.workflowservices.IWorkflowBackend;
+import org.knime.workflowservices.knime.util.CallWorkflowPayloadStore;
+
+/**
+ * Downloads several output resources of a callee workflow concurrently, such that a caller that needs all of them
+ * does not pay one round-trip and download after the other. Backends that are safe for concurrent calls of
+ * {@link IWorkflowBackend#openOutputResource(String)} opt in by implementing
+ * {@link IWorkflowBackend#openOutputResources(List)} via {@link #download(IWorkflowBackend, List)}.
+ *
+ * Each resource is downloaded to a temporary file; the file is deleted when the stream returned for it is closed. All
+ * but the first resource would otherwise have to wait for the caller to consume the preceding ones. This costs an
+ * extra copy of each resource on disk, so backends whose resources are local files should not use this class, see
+ * {@link IWorkflowBackend#getOutputResourceFile(String)}.
+ *
+ * The number of resources downloaded at the same time is limited by the system property
+ * {@value ChunkedResourceTransfer#PROPERTY_PARALLELISM}, which defaults to 4.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class OutputResourceDownload {
+
+    private final IWorkflowBackend m_backend;
+
+    private final List<File> m_files = new ArrayList<>();
+
+    private boolean m_failed;
+
+    private OutputResourceDownload(final IWorkflowBackend backend) {
+        m_backend = backend;
+    }
+
+    /**
+     * Downloads the given output resources concurrently.
+     *
+     * @param backend the backend of the executed callee workflow, must support concurrent calls to
+     *            {@link IWorkflowBackend#openOutputResource(String)}
+     * @param names the names of the Output nodes
+     * @return the downloaded resources by name, in the order of the names; the caller must close all of them
+     * @throws IOException if one of the resources cannot be downloaded, none of the resources is returned then
+     */
+    public static Map<String, InputStream> download(final IWorkflowBackend backend, final List<String> names)
+        throws IOException {
+        return new OutputResourceDownload(backend).download(names);
+    }
+
+    /**
+     * Provides streams for the given output resources that open the resource only when they are read for the first
+     * time. A caller that reads and closes one stream after the other thus has at most one resource open at a time, as
+     * if it opened them one after the other via {@link IWorkflowBackend#openOutputResource(String)}. This is the
+     * default implementation of {@link IWorkflowBackend#openOutputResources(List)}.
+     *
+     * @param backend the backend of the executed callee workflow
+     * @param names the names of the Output nodes
+     * @return streams of the resources by name, in the order of the names; failures to open a resource are reported
+     *         when its stream is read
+     */
+    public static Map<String, InputStream> openLazily(final IWorkflowBackend backend, final List<String> names) {
+        final Map<String, InputStream> result = new LinkedHashMap<>();
+        for (final var name : names) {
+            result.put(name, new LazyInputStream(backend, name));
+        }
+        return result;
+    }
+
+    private Map<String, InputStream> download(final List<String> names) throws IOException {
+        final var pool = KNIMEConstants.GLOBAL_THREAD_POOL
+            .createSubPool(Math.max(1, Integer.getInteger(ChunkedResourceTransfer.PROPERTY_PARALLELISM, 4)));
+        final Map<String, Future<File>> downloads = new LinkedHashMap<>();
+        for (final var name : names) {
+            downloads.put(name, pool.enqueue(ThreadUtils.callableWithContext(() -> downloadToFile(name))));
+        }
+        final Map<String, InputStream> result = new LinkedHashMap<>();
+        var success = false;
+        try {
+            for (final var download : downloads.entrySet()) {
+                result.put(download.getKey(), new ReleasingInputStream(await(download.getKey(), download.getValue())));
+            }
+            success = true;
+            return result;
+        } finally {
+            if (!success) {
+                // stops the remaining downloads and deletes the files downloaded so far
+                downloads.values().forEach(f -> f.cancel(true));
+                result.values().forEach(IOUtils::closeQuietly);
+                discard();
+            }
+        }
+    }
+
+    private File downloadToFile(final String name) throws IOException {
+        final var file = CallWorkflowPayloadStore.createFile("external-node-output-", ".download", -1);
+        try (var in = m_backend.openOutputResource(name); var out = CallWorkflowPayloadStore.newOutputStream(file)) {
+            in.transferTo(out);
+        } catch (IOException | RuntimeException e) {
+            CallWorkflowPayloadStore.discard(file);
+            throw e;
+        }
+        CallWorkflowPayloadStore.written(file);
+        synchronized (m_files) {
+            if (m_failed) {
+                CallWorkflowPayloadStore.discard(file);
+                throw new InterruptedIOException("Download of output " + name + " was canceled");
+            }
+            m_files.add(file);
+        }
+        return file;
+    }
+
+    private void discard() {
+        synchronized (m_files) {
+            m_failed = true;
+            m_files.forEach(CallWorkflowPayloadStore::discard);
+            m_files.clear();
+        }
+    }
+
+    private static File await(final String name, final Future<File> download) throws IOException {
+        try {
+            return download.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while downloading output " + name);
+        } catch (ExecutionException e) {
+            final var cause = e.getCause();
+            if (cause instanceof IOException ioe) {
+                throw ioe;
+            }
+            throw new IOException("Could not download output " + name + ": " + cause.getMessage(), cause);
+        }
+    }
+
+    /** Opens the output resource when it is read for the first time. */
+    private static final class LazyInputStream extends InputStream {
+
+        private final IWorkflowBackend m_backend;
+
+        private final String m_name;
+
+        private InputStream m_in;
+
+        private boolean m_closed;
+
+        LazyInputStream(final IWorkflowBackend backend, final String name) {
+            m_backend = backend;
+            m_name = name;
+        }
+
+        private InputStream in() throws IOException {
+            if (m_closed) {
+                throw new IOException("Stream of output " + m_name + " is closed");
+            }
+            if (m_in == null) {
+                m_in = m_backend.openOutputResource(m_name);
+            }
+            return m_in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return in().read();
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            return in().read(b, off, len);
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            return in().skip(n);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return m_in == null ? 0 : m_in.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            m_closed = true;
+            if (m_in != null) {
+                m_in.close();
+            }
+        }
+    }
+
+    /** Deletes the downloaded file once it has been read. */
+    private static final class ReleasingInputStream extends FilterInputStream {
+
+        private final File m_file;
+
+        private boolean m_closed;
+
+        ReleasingInputStream(final File file) throws IOException {
+            super(new FileInputStream(file));
+            m_file = file;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (m_closed) {
+                return;
+            }
+            m_closed = true;
+            try {
+                super.close();
+            } finally {
+                CallWorkflowPayloadStore.release(m_file.toURI());
+            }
+        }
+    }
+}
@@ -86,6 +86,8 @@ public class CallWorkflowRowBased3Configuration extends CallWorkflowConnectionCo
 
     static final String DROP_PARAMETER_IDENTIFIERS_CFG_KEY = "dropParameterIdentifiers";
 
+    static final String MAX_CONCURRENT_CALLS_CFG_KEY = "maxConcurrentCalls";
+
     /** @see #getParameterToJsonConfigMap() */
     private Map<String, ExternalNodeData> m_parameterToJsonConfigMap = Collections.emptyMap();
 
@@ -95,6 +97,9 @@ public class CallWorkflowRowBased3Configuration extends CallWorkflowConnectionCo
     /** @see #isDropParameterIdentifiers() */
     private boolean m_dropParameterIdentifiers = false;
 
+    /** @see #getMaxConcurrentCalls() */
+    private int m_maxConcurrentCalls = 1;
+
     /**
      * @param creationConfig
      */
@@ -134,6 +139,8 @@ public void saveSettings(final NodeSettingsWO settings) {
 
         // drop parameter identifiers
         settings.addBoolean(DROP_PARAMETER_IDENTIFIERS_CFG_KEY, m_dropParameterIdentifiers);
+
+        settings.addInt(MAX_CONCURRENT_CALLS_CFG_KEY, m_maxConcurrentCalls);
     }
 
     /**
@@ -149,6 +156,10 @@ public void loadSettingsInModel(final NodeSettingsRO settings) throws InvalidSet
         loadJsonConfigMap(settings, true);
         loadJsonColumnMap(settings, true);
         m_dropParameterIdentifiers = settings.getBoolean(DROP_PARAMETER_IDENTIFIERS_CFG_KEY, false);
+        // added in 5.12, older nodes execute sequentially
+        m_maxConcurrentCalls = settings.getInt(MAX_CONCURRENT_CALLS_CFG_KEY, 1);
+        CheckUtils.checkSetting(m_maxConcurrentCalls >= 1,
+            "The maximum number of concurrent calls must be at least 1, but is %d.", m_maxConcurrentCalls);
     }
 
     /**
@@ -172,6 +183,7 @@ public void loadSettingsInDialog(final NodeSettingsRO settings) throws NotConfig
         } catch (InvalidSettingsException e) { // NOSONAR doesn't happen when strict = false
         }
         m_dropParameterIdentifiers = settings.getBoolean(DROP_PARAMETER_IDENTIFIERS_CFG_KEY, false);
+        m_maxConcurrentCalls = Math.max(1, settings.getInt(MAX_CONCURRENT_CALLS_CFG_KEY, 1));
     }
 
     /**
@@ -306,4 +318,13 @@ public boolean isDropParameterIdentifiers() {
         return m_dropParameterIdentifiers;
     }
 
+    /**
+     * @return the maximum number of rows for which the callee workflow is executed at the same time, at least 1. Each
+     *         concurrent call uses its own workflow backend, hence fewer calls may run concurrently if not enough
+     *         backends are available, e.g., if the pool of local callee instances is exhausted.
+     */
+    public int getMaxConcurrentCalls() {
+        return m_maxConcurrentCalls;
+    }
+
 }
@@ -67,13 +67,23 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataColumnSpec;
@@ -82,6 +92,7 @@
 import org.knime.core.data.DataType;
 import org.knime.core.data.MissingCell;
 import org.knime.core.data.RowKey;
+import org.knime.core.data.append.AppendedColumnRow;
 import org.knime.core.data.blob.BinaryObjectCellFactory;
 import org.knime.core.data.blob.BinaryObjectDataCell;
 import org.knime.core.data.def.DefaultRow;
@@ -103,6 +114,15 @@
 import org.knime.core.node.dialog.ExternalNodeData;
 import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.streamable.InputPortRole;
+import org.knime.core.node.streamable.OutputPortRole;
+import org.knime.core.node.streamable.PartitionInfo;
+import org.knime.core.node.streamable.PortInput;
+import org.knime.core.node.streamable.PortOutput;
+import org.knime.core.node.streamable.RowInput;
+import org.knime.core.node.streamable.RowOutput;
+import org.knime.core.node.streamable.StreamableOperator;
+import org.knime.core.node.streamable.StreamableOperatorInternals;
 import org.knime.core.node.util.StringFormat;
 import org.knime.core.util.UniqueNameGenerator;
 import org.knime.core.util.report.ReportingConstants.RptOutputFormat;
@@ -135,7 +155,7 @@ public class CallWorkflowRowBased3NodeModel extends NodeModel {
      * The output table will contain a status column with information about each workflow invocation. The column might
      * have a #1 suffix if the input table already contains a column with the same name.
      *
-     * @see #createDataContainer(DataTableSpec, ExecutionContext, RptOutputFormat, Iterable, Map)
+     * @see #appendedColumnsSpec(DataTableSpec, RptOutputFormat, Iterable, Map)
      */
     @SuppressWarnings("javadoc")
     public static final String STATUS_COLUMN = "Status";
@@ -144,6 +164,12 @@ public class CallWorkflowRowBased3NodeModel extends NodeModel {
 
     private final CallWorkflowRowBased3Configuration m_configuration;
 
+    /**
+     * The output parameters of the callee workflow from which {@link #computeFinalOutputSpecs} derived the output spec,
+     * such that the streamed rows match that spec; {@code null} if it hasn't been called.
+     */
+    private volatile List<String> m_outputParametersOfFinalSpec;
+
     /**
      * @param nodeCreationConfiguration provides access to the optional file system connector that provides access to
      *            the location of the callee workflow
@@ -164,6 +190,7 @@ protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws Inva
         } else {
             m_configuration.configureCalleeModel(inSpecs);
             ConnectionUtil.validateConfiguration(m_configuration);
+            ConnectionUtil.preloadWorkflow(m_configuration);
         }
         return new PortObjectSpec[]{null};
     }
@@ -171,13 +198,17 @@ protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws Inva
     /** {@inheritDoc} */
     @Override
     protected BufferedDataTable[] execute(final PortObject[] inputs, final ExecutionContext exec) throws Exception {
-        // If there are too many Call Local Workflow nodes pointing to the same called workflow then all threads may
-        // be in use and the called workflow cannot be executed. Therefore the calling node runs invisible.
-        try {
+        final var outputTable = runInvisible(() -> executeInternal(getInputTable(inputs), exec));
+        return new BufferedDataTable[]{outputTable};
+    }
 
-            final var outputTable =
-                KNIMEConstants.GLOBAL_THREAD_POOL.runInvisible(() -> executeInternal(getInputTable(inputs), exec));
-            return new BufferedDataTable[]{outputTable};
+    /**
+     * If there are too many Call Local Workflow nodes pointing to the same called workflow then all threads may be in
+     * use and the called workflow cannot be executed. Therefore the calling node runs invisible.
+     */
+    private static <T> T runInvisible(final Callable<T> callable) throws Exception {
+        try {
+            return KNIMEConstants.GLOBAL_THREAD_POOL.runInvisible(callable);
         } catch (ExecutionException e) {
             var cause = e.getCause();
             if (cause instanceof Exception) {
@@ -188,6 +219,84 @@ protected BufferedDataTable[] execute(final PortObject[] inputs, final Execution
         }
     }
 
+    @Override
+    public InputPortRole[] getInputPortRoles() {
+        final var roles = new InputPortRole[getNrInPorts()];
+        Arrays.fill(roles, InputPortRole.NONDISTRIBUTED_NONSTREAMABLE);
+        // not distributed, the callee workflow instances are shared by all rows
+        roles[CallWorkflowRowBased3NodeFactory.getDataPortIndex(m_configuration)] =
+            InputPortRole.NONDISTRIBUTED_STREAMABLE;
+        return roles;
+    }
+
+    @Override
+    public OutputPortRole[] getOutputPortRoles() {
+        return new OutputPortRole[]{OutputPortRole.NONDISTRIBUTED};
+    }
+
+    /**
+     * The output columns depend on the output parameters of the callee workflow, which are unknown during
+     * {@link #configure(PortObjectSpec[])}. A streaming executor needs them before the first row is processed, hence
+     * the callee workflow is contacted here. A single callee instance suffices to learn the output parameters, the
+     * instances that process the rows are created in the streamable operator and append the columns for the same
+     * output parameters.
+     */
+    @Override
+    public PortObjectSpec[] computeFinalOutputSpecs(final StreamableOperatorInternals internals,
+        final PortObjectSpec[] inSpecs) throws InvalidSettingsException {
+        final var inSpec = (DataTableSpec)inSpecs[CallWorkflowRowBased3NodeFactory.getDataPortIndex(m_configuration)];
+        try {
+            final var outputParameters = runInvisible(() -> {
+                try (var backend = ConnectionUtil.createWorkflowBackend(m_configuration)) {
+                    backend.loadWorkflow();
+                    return List.copyOf(backend.getOutputValues().keySet());
+                }
+            });
+            m_outputParametersOfFinalSpec = outputParameters;
+            final var appendedColumnsSpec = appendedColumnsSpec(inSpec,
+                m_configuration.getReportFormat().orElse(null), outputParameters, new HashMap<>());
+            return new PortObjectSpec[]{new DataTableSpec(inSpec, appendedColumnsSpec)};
+        } catch (InvalidSettingsException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InvalidSettingsException(
+                "Could not fetch the output parameters of the callee workflow: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public StreamableOperator createStreamableOperator(final PartitionInfo partitionInfo,
+        final PortObjectSpec[] inSpecs) throws InvalidSettingsException {
+        final var dataPortIndex = CallWorkflowRowBased3NodeFactory.getDataPortIndex(m_configuration);
+        final var outputParameters = m_outputParametersOfFinalSpec;
+        return new StreamableOperator() {
+            @Override
+            public void runFinal(final PortInput[] inputs, final PortOutput[] outputs, final ExecutionContext exec)
+                throws Exception {
+                final var input = (RowInput)inputs[dataPortIndex];
+                final var output = (RowOutput)outputs[0];
+                runInvisible(() -> {
+                    try (var invocation = new CalleeInvocation(input.getDataTableSpec(), outputParameters, exec)) {
+                        invocation.process(input::poll, -1,
+                            (row, appendedCells) -> output.push(new AppendedColumnRow(row, toCells(appendedCells))),
+                            exec);
+                    }
+                    return null;
+                });
+                input.close();
+                output.close();
+            }
+        };
+    }
+
+    private static DataCell[] toCells(final DataRow row) {
+        final var cells = new DataCell[row.getNumCells()];
+        for (var i = 0; i < cells.length; i++) {
+            cells[i] = row.getCell(i);
+        }
+        return cells;
+    }
+
     /**
      * @param inputs the connected input port objects
      * @return the port object that provides access to the data to process
@@ -211,59 +320,276 @@ private BufferedDataTable getInputTable(final PortObject[] inputs) {
      */
     private BufferedDataTable executeInternal(final BufferedDataTable inputTable, final ExecutionContext exec)
         throws Exception {
+        try (var invocation = new CalleeInvocation(inputTable.getDataTableSpec(), null, exec);
+                var iterator = inputTable.iterator()) {
+            var appendedColumns = exec.createDataContainer(invocation.getAppendedColumnsSpec());
+            invocation.process(() -> iterator.hasNext() ? iterator.next() : null, inputTable.size(),
+                (row, appendedCells) -> appendedColumns.addRowToTable(appendedCells), exec);
+            appendedColumns.close();
+            return exec.createJoinedTable(inputTable, appendedColumns.getTable(), exec);
+        }
+    }
 
-        try (var backend = ConnectionUtil.createWorkflowBackend(m_configuration)) {
+    /** Provides the input rows, either from a table or from a stream. */
+    @FunctionalInterface
+    private interface RowSource {
+        /** @return the next row or {@code null} if there are no more rows */
+        DataRow next() throws InterruptedException;
+    }
 
-            exec.setProgress("Loading workflow...");
-            backend.loadWorkflow();
+    /** Receives the results of the workflow invocations, in the order of the input rows. */
+    @FunctionalInterface
+    private interface AppendedRowSink {
+        /**
+         * @param inputRow the input row
+         * @param appendedCells the cells to append to the input row
+         */
+        void accept(DataRow inputRow, DataRow appendedCells) throws InterruptedException;
+    }
 
-            exec.setProgress("Sending input data...");
-            backend.updateWorkflow(m_configuration.getParameterToJsonConfigMap());
+    /**
+     * The workflow backends used to execute the callee workflow for the rows of one input table, independent of
+     * whether the table is processed as a whole or streamed.
+     */
+    private final class CalleeInvocation implements AutoCloseable {
+
+        private final List<IWorkflowBackend> m_backends;
+
+        private final RptOutputFormat m_reportFormatOrNull;
+
+        /** maps workflow input parameter name to column offset in the input table that contains the JSON to be sent */
+        private final Map<String, Integer> m_parameterToJsonColumnIndexMap;
+
+        /**
+         * maps each callee workflow output parameter name to the offset of the cell containing the output value for
+         * the parameter. Offset zero corresponds ot the first cell being appended to the input row
+         */
+        private final Map<String, Integer> m_outputColIndexMap = new HashMap<>();
+
+        private final DataTableSpec m_appendedColumnsSpec;
+
+        /**
+         * Creates the backends and sends the static input data to them.
+         *
+         * @param inSpec the spec of the input table
+         * @param outputParametersOrNull the output parameters to append columns for, e.g., the ones the output spec
+         *            was computed from; {@code null} to use those of the callee workflow instances
+         * @param exec to report progress
+         */
+        CalleeInvocation(final DataTableSpec inSpec, final List<String> outputParametersOrNull,
+            final ExecutionMonitor exec) throws Exception {
+            final var maxConcurrentCalls = m_configuration.getMaxConcurrentCalls();
+            m_backends = ConnectionUtil.createWorkflowBackends(m_configuration, maxConcurrentCalls);
+            try {
+                if (m_backends.size() < maxConcurrentCalls) {
+                    LOGGER.debugWithFormat(
+                        "Only %d of %d concurrent calls possible, no more callee instances available",
+                        m_backends.size(), maxConcurrentCalls);
+                }
 
-            var reportFormatOrNull = m_configuration.getReportFormat().orElse(null);
+                exec.setProgress("Loading workflow...");
+                for (var backend : m_backends) {
+                    backend.loadWorkflow();
+                }
 
-            // map workflow input parameter name to column offset in the input table that contains the JSON to be sent
-            final var parameterToJsonColumnIndexMap =
-                m_configuration.getParameterToJsonColumnIndexMap(inputTable.getDataTableSpec());
+                exec.setProgress("Sending input data...");
+                for (var backend : m_backends) {
+                    backend.updateWorkflow(m_configuration.getParameterToJsonConfigMap());
+                }
 
-            // maps each callee workflow output parameter name to the offset of the cell containing the output value for
-            // the parameter. Offset zero corresponds ot the first cell being appended to the input row
-            Map<String, Integer> outputColIndexMap = new HashMap<>();
+                m_reportFormatOrNull = m_configuration.getReportFormat().orElse(null);
+                m_parameterToJsonColumnIndexMap = m_configuration.getParameterToJsonColumnIndexMap(inSpec);
+                m_appendedColumnsSpec = appendedColumnsSpec(inSpec, m_reportFormatOrNull,
+                    outputParametersOrNull != null ? outputParametersOrNull
+                        : m_backends.get(0).getOutputValues().keySet(),
+                    m_outputColIndexMap);
+            } catch (Exception e) {
+                ConnectionUtil.closeQuietly(m_backends);
+                throw e;
+            }
+        }
 
-            // create spec and container for the additional columns
-            final var appendedColumnsSpec = appendedColumnsSpec(inputTable.getDataTableSpec(), reportFormatOrNull,
-                backend.getOutputValues().keySet(), outputColIndexMap);
-            var appendedColumns = exec.createDataContainer(appendedColumnsSpec);
+        /** @return the spec of the columns appended to the input rows */
+        DataTableSpec getAppendedColumnsSpec() {
+            return m_appendedColumnsSpec;
+        }
 
-            var reportCellFactory = new BinaryObjectCellFactory(exec);
+        /**
+         * Executes the callee workflow once for each row.
+         *
+         * @param rows the input rows
+         * @param rowCount the number of input rows, negative if unknown
+         * @param sink receives the results
+         * @param exec to create report cells and report progress
+         */
+        void process(final RowSource rows, final long rowCount, final AppendedRowSink sink,
+            final ExecutionContext exec) throws Exception {
+            final var reportCellFactory = new BinaryObjectCellFactory(exec);
+            if (m_backends.size() > 1) {
+                processConcurrently(rows, rowCount, sink, reportCellFactory, exec);
+            } else {
+                processSequentially(rows, rowCount, sink, reportCellFactory, exec);
+            }
+        }
 
+        private void processSequentially(final RowSource rows, final long rowCount, final AppendedRowSink sink,
+            final BinaryObjectCellFactory reportCellFactory, final ExecutionMonitor exec) throws Exception {
+            final var backend = m_backends.get(0);
             var rowIndex = 0L;
-            final var rowCount = inputTable.size();
+            DataRow row;
             // execute callee workflow once for each input row
-            for (DataRow row : inputTable) {
+            while ((row = rows.next()) != null) {
                 exec.checkCanceled();
-                exec.setProgress(rowIndex / (double)rowCount,
-                    String.format("Row %d/%d (\"%s\")", rowIndex, rowCount, row.getKey().toString()));
+                setProgress(exec, rowIndex, rowCount, row);
 
                 rowIndex++;
 
                 // prepare external node data objects to be sent to callee workflow
-                var workflowInput = createWorkflowInput(parameterToJsonColumnIndexMap, row);
+                var workflowInput = createWorkflowInput(m_parameterToJsonColumnIndexMap, row);
                 // if all input cells are present (none contains a missing value)
                 if (workflowInput.isPresent()) {
                     // execute the workflow and retrieve results
-                    var result = backend.executeWorkflow(reportFormatOrNull, workflowInput.get());
-                    var appendedCells = constructAppendedCells(result, outputColIndexMap, reportFormatOrNull,
-                        reportCellFactory, row.getKey());
-                    appendedColumns.addRowToTable(appendedCells);
+                    var result = backend.executeWorkflow(m_reportFormatOrNull, workflowInput.get());
+                    sink.accept(row, constructAppendedCells(result, m_outputColIndexMap, m_reportFormatOrNull,
+                        reportCellFactory, row.getKey()));
                 } else {
-                    appendedColumns.addRowToTable(createFailureRow(row.getKey(),
-                        "Row contains missing values, workflow not called", appendedColumnsSpec.getNumColumns()));
+                    sink.accept(row, createFailureRow(row.getKey(), "Row contains missing values, workflow not called",
+                        m_appendedColumnsSpec.getNumColumns()));
                 }
             }
-            appendedColumns.close();
-            return exec.createJoinedTable(inputTable, appendedColumns.getTable(), exec);
         }
+
+        /**
+         * Executes the callee workflow for each row, running as many calls at the same time as there are backends.
+         * Each backend is used by at most one call at a time. The calls are asynchronous, see
+         * {@link IWorkflowBackend#executeAsync(RptOutputFormat, Map)}. The results are passed on in the order of the
+         * input rows.
+         */
+        private void processConcurrently(final RowSource rows, final long rowCount, final AppendedRowSink sink,
+            final BinaryObjectCellFactory reportCellFactory, final ExecutionMonitor exec) throws Exception {
+            final BlockingQueue<IWorkflowBackend> idleBackends = new LinkedBlockingQueue<>(m_backends);
+            // rows that have been submitted but whose results have not been passed on yet, in input order; bounded to
+            // keep the number of results held in memory small
+            final Deque<PendingRow> pendingRows = new ArrayDeque<>();
+            final var maxPendingRows = 2 * m_backends.size();
+
+            var rowIndex = 0L;
+            try {
+                DataRow row;
+                while ((row = rows.next()) != null) {
+                    exec.checkCanceled();
+
+                    // prepare external node data objects to be sent to callee workflow
+                    var workflowInput = createWorkflowInput(m_parameterToJsonColumnIndexMap, row);
+                    CompletableFuture<BackendExecutionResult> result = null;
+                    // if all input cells are present (none contains a missing value)
+                    if (workflowInput.isPresent()) {
+                        final var backend = takeIdleBackend(idleBackends, exec);
+                        result = backend.executeAsync(m_reportFormatOrNull, workflowInput.get());
+                        result.whenComplete((r, e) -> idleBackends.add(backend));
+                    }
+                    pendingRows.add(new PendingRow(row, result));
+
+                    while (pendingRows.size() >= maxPendingRows) {
+                        // removed only once passed on, such that it is awaited if passing it on fails
+                        final var pendingRow = pendingRows.peek();
+                        passOn(pendingRow, sink, reportCellFactory, exec);
+                        pendingRows.remove();
+                        setProgress(exec, rowIndex++, rowCount, pendingRow.row());
+                    }
+                }
+                while (!pendingRows.isEmpty()) {
+                    final var pendingRow = pendingRows.peek();
+                    passOn(pendingRow, sink, reportCellFactory, exec);
+                    pendingRows.remove();
+                    setProgress(exec, rowIndex++, rowCount, pendingRow.row());
+                }
+            } finally {
+                // only non-empty in case of failure or cancellation
+                for (var pendingRow : pendingRows) {
+                    if (pendingRow.result() != null) {
+                        pendingRow.result().cancel(true);
+                    }
+                }
+                // cancelling does not necessarily stop a running call, the backends are closed only after all calls
+                // have finished
+                for (var pendingRow : pendingRows) {
+                    if (pendingRow.result() != null) {
+                        awaitQuietly(pendingRow.result());
+                    }
+                }
+            }
+        }
+
+        private void passOn(final PendingRow pendingRow, final AppendedRowSink sink,
+            final BinaryObjectCellFactory reportCellFactory, final ExecutionMonitor exec) throws Exception {
+            final var row = pendingRow.row();
+            if (pendingRow.result() == null) {
+                sink.accept(row, createFailureRow(row.getKey(), "Row contains missing values, workflow not called",
+                    m_appendedColumnsSpec.getNumColumns()));
+                return;
+            }
+            BackendExecutionResult result;
+            while (true) {
+                try {
+                    result = pendingRow.result().get(1, TimeUnit.SECONDS);
+                    break;
+                } catch (TimeoutException e) { // NOSONAR check for cancellation while waiting
+                    exec.checkCanceled();
+                } catch (ExecutionException e) {
+                    var cause = e.getCause();
+                    if (cause instanceof Exception ex) {
+                        throw ex;
+                    }
+                    throw e;
+                }
+            }
+            sink.accept(row, constructAppendedCells(result, m_outputColIndexMap, m_reportFormatOrNull,
+                reportCellFactory, row.getKey()));
+        }
+
+        @Override
+        public void close() {
+            ConnectionUtil.closeQuietly(m_backends);
+        }
+    }
+
+    private static void setProgress(final ExecutionMonitor exec, final long rowIndex, final long rowCount,
+        final DataRow row) {
+        if (rowCount < 0) {
+            exec.setMessage(() -> String.format("Row %d (\"%s\")", rowIndex, row.getKey().toString()));
+        } else {
+            exec.setProgress(rowIndex / (double)rowCount,
+                () -> String.format("Row %d/%d (\"%s\")", rowIndex, rowCount, row.getKey().toString()));
+        }
+    }
+
+    private static IWorkflowBackend takeIdleBackend(final BlockingQueue<IWorkflowBackend> idleBackends,
+        final ExecutionMonitor exec) throws InterruptedException, CanceledExecutionException {
+        IWorkflowBackend backend;
+        while ((backend = idleBackends.poll(1, TimeUnit.SECONDS)) == null) {
+            exec.checkCanceled();
+        }
+        return backend;
+    }
+
+    private static void awaitQuietly(final Future<BackendExecutionResult> result) {
+        try {
+            result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.debug("Interrupted while waiting for a call of the callee workflow to finish", e);
+        } catch (CancellationException | ExecutionException e) { // NOSONAR the failure has been reported already
+        }
+    }
+
+    /**
+     * A row that has been submitted for concurrent execution.
+     *
+     * @param row the input row
+     * @param result the result of the workflow invocation, {@code null} if the row contains missing values
+     */
+    private record PendingRow(DataRow row, Future<BackendExecutionResult> result) {
     }
 
     /**
@@ -418,7 +744,7 @@ protected void saveSettingsTo(final NodeSettingsWO settings) {
 
     @Override
     protected void reset() {
-        // intentionally empty
+        m_outputParametersOfFinalSpec = null;
     }
 
     @Override
@@ -47,13 +47,21 @@
 package org.knime.workflowservices.json.row.caller3;
 
 import org.knime.core.webui.node.dialog.defaultdialog.internal.widget.PersistWithin.PersistEmbedded;
+import org.knime.node.parameters.Advanced;
 import org.knime.node.parameters.NodeParameters;
+import org.knime.node.parameters.Widget;
+import org.knime.node.parameters.layout.After;
+import org.knime.node.parameters.layout.Layout;
+import org.knime.node.parameters.layout.Section;
 import org.knime.node.parameters.migration.Migrate;
 import org.knime.node.parameters.migration.Migration;
 import org.knime.node.parameters.persistence.Persist;
 import org.knime.node.parameters.persistence.Persistor;
 import org.knime.node.parameters.updates.ValueProvider;
 import org.knime.node.parameters.updates.ValueReference;
+import org.knime.node.parameters.widget.number.NumberInputWidget;
+import org.knime.node.parameters.widget.number.NumberInputWidgetValidation.MinValidation.IsPositiveIntegerValidation;
+import org.knime.workflowservices.CallWorkflowLayout.JobStatusPollingSection;
 import org.knime.workflowservices.CallWorkflowParameters;
 import org.knime.workflowservices.ReportingParameters;
 import org.knime.workflowservices.ReportingParameters.ReportingParametersPersistor;
@@ -89,4 +97,21 @@ final class CallWorkflowRowBased3NodeParameters implements NodeParameters {
     @Persistor(ReportingParametersPersistor.class)
     ReportingParameters m_reportingParameters = new ReportingParameters();
 
+    @Advanced
+    @Section(title = "Parallel Execution")
+    @After(JobStatusPollingSection.class)
+    interface ParallelExecutionSection {
+    }
+
+    @Widget(title = "Maximum concurrent calls",
+        description = "The maximum number of rows for which the callee workflow is executed at the same time. "
+            + "Each concurrent call uses its own instance of the callee workflow, i.e. a separate job for remote "
+            + "execution or a separate copy of the workflow for local execution. The order of the output rows does "
+            + "not depend on this setting.")
+    @NumberInputWidget(minValidation = IsPositiveIntegerValidation.class)
+    @Layout(ParallelExecutionSection.class)
+    @Persist(configKey = CallWorkflowRowBased3Configuration.MAX_CONCURRENT_CALLS_CFG_KEY)
+    @Migrate(loadDefaultIfAbsent = true)
+    int m_maxConcurrentCalls = 1;
+
 }
@@ -22,6 +22,8 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -52,11 +54,14 @@
 import org.knime.json.node.container.input.variable2.ContainerVariableMapper2;
 import org.knime.json.node.container.mappers.ContainerTableMapper;
 import org.knime.workflowservices.IWorkflowBackend;
+import org.knime.workflowservices.IWorkflowBackend.ResourceContentType;
 import org.knime.workflowservices.IWorkflowBackend.WorkflowState;
 import org.knime.workflowservices.caller.util.CallWorkflowUtil;
 import org.knime.workflowservices.connection.IServerConnection;
 import org.knime.workflowservices.connection.util.ConnectionUtil;
 import org.knime.workflowservices.json.table.caller2.CallWorkflowTable2NodeFactory;
+import org.knime.workflowservices.knime.util.CallWorkflowPayload;
+import org.knime.workflowservices.knime.util.CallWorkflowPayloadStore;
 
 import jakarta.json.JsonValue;
 
@@ -76,6 +81,13 @@ public abstract class AbstractCallWorkflowTableNodeModel extends NodeModel {
 
     protected IServerConnection m_serverConnection;
 
+    /**
+     * System property to always exchange tables as JSON, even if the callee workflow accepts or provides them in
+     * KNIME's binary table format. Defaults to {@code false}.
+     */
+    public static final String PROPERTY_DISABLE_BINARY_TABLE_TRANSPORT =
+        "knime.workflowservices.table.disableBinaryTransport";
+
     /**
      * Creates a new model.
      *
@@ -124,16 +136,21 @@ private PortObject[] executeInternal(final PortObject[] inObjects, final Executi
         try (IWorkflowBackend backend = createWorkflowBackend()) {
             if (backend != null) {
                 backend.loadWorkflow();
-                WorkflowState state = backend.execute(createWorkflowInput(table));
-                if (state != WorkflowState.EXECUTED) {
-                    String failureMessage = "Failure, workflow was not executed, current state is " + state + ".";
-                    String workflowMessage = backend.getWorkflowMessage();
-                    if (StringUtils.isNotBlank(workflowMessage)) {
-                        failureMessage = failureMessage + "\n" + workflowMessage;
+                final List<URI> inputResources = new ArrayList<>();
+                try {
+                    WorkflowState state = backend.execute(createWorkflowInput(table, backend, exec, inputResources));
+                    if (state != WorkflowState.EXECUTED) {
+                        String failureMessage = "Failure, workflow was not executed, current state is " + state + ".";
+                        String workflowMessage = backend.getWorkflowMessage();
+                        if (StringUtils.isNotBlank(workflowMessage)) {
+                            failureMessage = failureMessage + "\n" + workflowMessage;
+                        }
+                        throw new Exception(failureMessage);
+                    } else {
+                        return getOutputFromExecutedWorkflow(exec, backend);
                     }
-                    throw new Exception(failureMessage);
-                } else {
-                    return getOutputFromExecutedWorkflow(exec, backend);
+                } finally {
+                    inputResources.forEach(CallWorkflowPayloadStore::release);
                 }
             } else {
                 throw new Exception(
@@ -156,12 +173,25 @@ private IWorkflowBackend createWorkflowBackend() throws Exception {
      */
     protected abstract BufferedDataTable getInputTable(PortObject[] inObjects);
 
-    private Map<String, ExternalNodeData> createWorkflowInput(final BufferedDataTable table)
-        throws InvalidSettingsException {
+    private Map<String, ExternalNodeData> createWorkflowInput(final BufferedDataTable table,
+        final IWorkflowBackend backend, final ExecutionContext exec, final List<URI> inputResources)
+        throws InvalidSettingsException, IOException, CanceledExecutionException {
         Map<String, ExternalNodeData> workflowInput = new HashMap<>();
 
         String tableDestination = m_configuration.getSelectedInputParameter();
-        createTableData(table, tableDestination).ifPresent(tableData -> workflowInput.put(tableDestination, tableData));
+        if (StringUtils.isNotBlank(tableDestination) && table != null) {
+            // send the table in binary format if the callee accepts it, otherwise as JSON
+            final var useFullyQualifiedId = m_configuration.isUseFullyQualifiedId();
+            final var binaryTableData = isBinaryTableTransportEnabled()
+                ? createBinaryTableInput(backend, tableDestination, useFullyQualifiedId, table, exec)
+                : Optional.<ExternalNodeData> empty();
+            if (binaryTableData.isPresent()) {
+                inputResources.add(binaryTableData.get().getResource());
+                workflowInput.put(binaryTableData.get().getID(), binaryTableData.get());
+            } else {
+                workflowInput.put(tableDestination, createTableData(table, tableDestination));
+            }
+        }
 
         String flowVariableDestination = m_configuration.getFlowVariableDestination();
         createFlowVariableData(flowVariableDestination)
@@ -174,16 +204,90 @@ private Map<String, ExternalNodeData> createWorkflowInput(final BufferedDataTabl
         return workflowInput;
     }
 
-    private static Optional<ExternalNodeData> createTableData(final BufferedDataTable table, final String id)
+    private static ExternalNodeData createTableData(final BufferedDataTable table, final String id)
         throws InvalidSettingsException {
-        if (StringUtils.isNotBlank(id) && table != null) {
-            JsonValue inputTableAsJson = ContainerTableMapper.toContainerTableJsonValue(table);
-            ExternalNodeData externalNodeData = ExternalNodeData.builder(id).jsonValue(inputTableAsJson).build();
+        JsonValue inputTableAsJson = ContainerTableMapper.toContainerTableJsonValue(table);
+        return ExternalNodeData.builder(id).jsonValue(inputTableAsJson).build();
+    }
 
-            return Optional.of(externalNodeData);
-        } else {
+    /**
+     * @return whether tables may be exchanged in KNIME's binary table format with callees that support it
+     * @see #PROPERTY_DISABLE_BINARY_TABLE_TRANSPORT
+     */
+    private static boolean isBinaryTableTransportEnabled() {
+        return !Boolean.getBoolean(PROPERTY_DISABLE_BINARY_TABLE_TRANSPORT);
+    }
+
+    /**
+     * Writes the table in KNIME's binary table format if the callee workflow accepts it as a table resource, i.e., if
+     * the configured parameter belongs to a Workflow Input node that receives a table.
+     *
+     * @param backend the loaded callee workflow
+     * @param parameterId the configured input parameter, fully qualified or simple
+     * @param useFullyQualifiedId whether the parameter id is fully qualified
+     * @param table the table to send
+     * @param exec for writing the table
+     * @return the input for the callee workflow, referring to a file that must be released via
+     *         {@link CallWorkflowPayloadStore#release(URI)}; empty if the table has to be sent as JSON
+     * @throws IOException if writing the table failed
+     * @throws CanceledExecutionException if writing the table was canceled
+     */
+    static Optional<ExternalNodeData> createBinaryTableInput(final IWorkflowBackend backend, final String parameterId,
+        final boolean useFullyQualifiedId, final BufferedDataTable table, final ExecutionContext exec)
+        throws IOException, CanceledExecutionException {
+        final var destination =
+            findTableResource(backend.getInputResourceDescription(), parameterId, useFullyQualifiedId);
+        if (destination.isEmpty()) {
             return Optional.empty();
         }
+        return Optional.of(CallWorkflowPayload.createTableInput(destination.get(), table, exec));
+    }
+
+    /**
+     * Reads the table in KNIME's binary table format if the callee workflow provides it as a table resource, i.e., if
+     * the configured parameter belongs to a Workflow Output node that provides a table.
+     *
+     * @param backend the executed callee workflow
+     * @param parameterId the configured output parameter, fully qualified or simple
+     * @param useFullyQualifiedId whether the parameter id is fully qualified
+     * @param exec for creating the table
+     * @return the table, empty if the table has to be read from JSON
+     * @throws Exception if reading the table failed
+     */
+    static Optional<PortObject> readBinaryTableOutput(final IWorkflowBackend backend, final String parameterId,
+        final boolean useFullyQualifiedId, final ExecutionContext exec) throws Exception {
+        final var source = findTableResource(backend.getOutputResourceDescription(), parameterId, useFullyQualifiedId);
+        if (source.isEmpty()) {
+            return Optional.empty();
+        }
+        final var file = backend.getOutputResourceFile(source.get());
+        try (var stream = file.isPresent() ? null : backend.openOutputResource(source.get());
+                var payload = file.isPresent() ? CallWorkflowPayload.createFrom(file.get(), BufferedDataTable.TYPE)
+                    : CallWorkflowPayload.createFrom(stream, BufferedDataTable.TYPE)) {
+            // a table payload carries no flow variables
+            return Optional.of(payload.onExecute(exec, flowVariable -> { }, null));
+        }
+    }
+
+    /**
+     * @param resources the resource based parameters of the callee workflow, see
+     *            {@link IWorkflowBackend#getInputResourceDescription()}
+     * @param parameterId the configured parameter, fully qualified or simple, see
+     *            {@link CallWorkflowTableNodeConfiguration#isUseFullyQualifiedId()}
+     * @param useFullyQualifiedId whether the parameter id is fully qualified
+     * @return the fully qualified id of the parameter if the callee workflow exchanges it as a KNIME table resource
+     */
+    private static Optional<String> findTableResource(final Map<String, ResourceContentType> resources,
+        final String parameterId, final boolean useFullyQualifiedId) {
+        final var tableContentType = ResourceContentType.of(BufferedDataTable.TYPE).asString();
+        Map<String, String> fullyQualifiedToSimpleIDMap =
+            IWorkflowBackend.getFullyQualifiedToSimpleIDMap(resources.keySet());
+        return resources.entrySet().stream()//
+            .filter(e -> tableContentType.equals(e.getValue().asString()))//
+            .map(Entry::getKey)//
+            .filter(id -> parameterId.equals(id)
+                || (!useFullyQualifiedId && parameterId.equals(fullyQualifiedToSimpleIDMap.get(id))))
+            .findFirst();
     }
 
     /**
@@ -223,7 +327,15 @@ private Optional<ExternalNodeData> createFlowCredentialsNodeData(final String id
     }
 
     private PortObject[] getOutputFromExecutedWorkflow(final ExecutionContext exec, final IWorkflowBackend backend)
-        throws InvalidSettingsException {
+        throws Exception {
+        // read the table in binary format if the callee provides it, otherwise as JSON
+        final var binaryTable = isBinaryTableTransportEnabled() ? readBinaryTableOutput(backend,
+            m_configuration.getSelectedOutputParameter(), m_configuration.isUseFullyQualifiedId(), exec)
+            : Optional.<PortObject> empty();
+        if (binaryTable.isPresent()) {
+            return new PortObject[]{binaryTable.get()};
+        }
+
         JsonValue output = getOutputJsonValue(backend);
         if (output == null) {
             return new PortObject[]{InactiveBranchPortObject.INSTANCE};
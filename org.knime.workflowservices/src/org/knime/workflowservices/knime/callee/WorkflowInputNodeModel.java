@@ -45,10 +45,8 @@
  */
 package org.knime.workflowservices.knime.callee;
 
-import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.Objects;
@@ -83,6 +81,13 @@ final class WorkflowInputNodeModel extends AbstractPortObjectRepositoryNodeModel
 
     private WorkflowBoundaryConfiguration m_settings;
 
+    /** The resource set by the caller workflow, decoded into {@link #m_payload} when needed. */
+    private URI m_payloadResource;
+
+    /** The spec of the data at {@link #m_payloadResource}, if it could be read without decoding the payload. */
+    private PortObjectSpec m_payloadSpec;
+
+    /** Decoded lazily, such that inputs that are not used by the callee workflow are never decoded. */
     private CallWorkflowPayload m_payload;
 
     WorkflowInputNodeModel(final PortsConfiguration creationConfig) {
@@ -104,8 +109,8 @@ private static PortType[] toOptional(final PortType[] types) {
 
     @Override
     protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws InvalidSettingsException {
-        if (m_payload != null) {
-            return new PortObjectSpec[] {m_payload.getSpec()};
+        if (m_payloadResource != null) {
+            return new PortObjectSpec[] {m_payloadSpec != null ? m_payloadSpec : getPayload().getSpec()};
         }
         var spec = inSpecs[0];
         if (spec != null) {
@@ -118,17 +123,27 @@ protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws Inva
     /**
      * If external input data is present (as set by {@link #setInputData(ExternalNodeData)}), deserialize the contents
      * and provide to downstream nodes as a regular {@link PortObject}.
+     *
+     * The caller workflow releases the resource once the call has ended. Hence, afterwards only a payload that is
+     * {@link CallWorkflowPayload#isReusable() reusable}, i.e., that doesn't refer to the resource, is kept; otherwise
+     * the input is dropped and the node cannot be executed again without fresh input.
      */
     @Override
     protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec) throws Exception {
-        if (m_payload != null) {
-            @SuppressWarnings("unchecked")
-            var portObject = m_payload.onExecute(exec, variable -> {
-                @SuppressWarnings("rawtypes")
-                VariableType expectedType = variable.getVariableType(); // NOSONAR must be declared as raw type
-                pushFlowVariable(variable.getName(), expectedType, variable.getValue(expectedType));
-            }, this);
-            return new PortObject[]{portObject};
+        if (m_payloadResource != null) {
+            try {
+                @SuppressWarnings("unchecked")
+                var portObject = getPayload().onExecute(exec, variable -> {
+                    @SuppressWarnings("rawtypes")
+                    VariableType expectedType = variable.getVariableType(); // NOSONAR must be declared as raw type
+                    pushFlowVariable(variable.getName(), expectedType, variable.getValue(expectedType));
+                }, this);
+                return new PortObject[]{portObject};
+            } finally {
+                if (m_payload == null || !m_payload.isReusable()) {
+                    disposePayload();
+                }
+            }
         } else if (inObjects[0] != null) {
             return new PortObject[]{inObjects[0]};
         }
@@ -150,18 +165,35 @@ public void validateInputData(final ExternalNodeData inputData) throws InvalidSe
 
     /**
      * This is used by the caller workflow to a) initialize the subworkflow and retrieve information about the output
-     * nodes and b) to set the actual data for execution
+     * nodes and b) to set the actual data for execution. Only the spec is read here, the data is decoded when the node
+     * is executed.
      */
     @Override
     public void setInputData(final ExternalNodeData inputData) throws InvalidSettingsException {
         var locationURI = inputData.getResource();
         CheckUtils.checkArgumentNotNull(locationURI);
-        try (InputStream in = new BufferedInputStream(locationURI.toURL().openStream())) { // NOSONAR
-            m_payload = CallWorkflowPayload.createFrom(in, getOutPortType(0));
+        if (locationURI.equals(m_payloadResource) && m_payload != null && m_payload.isReusable()) {
+            // the caller passes the same (cached) resource again, e.g., in a loop, and it has been decoded already
+            return;
+        }
+        disposePayload();
+        try {
+            m_payloadSpec = CallWorkflowPayload.readSpec(locationURI, getOutPortType(0)).orElse(null);
         } catch (IOException e) {
             throw new InvalidSettingsException(e.getMessage(), e);
         }
+        m_payloadResource = locationURI;
+    }
 
+    private CallWorkflowPayload getPayload() throws InvalidSettingsException {
+        if (m_payload == null) {
+            try {
+                m_payload = CallWorkflowPayload.createFrom(m_payloadResource, getOutPortType(0));
+            } catch (IOException e) {
+                throw new InvalidSettingsException(e.getMessage(), e);
+            }
+        }
+        return m_payload;
     }
 
     @Override
@@ -201,13 +233,20 @@ protected void reset() {
     @Override
     protected void onDispose() {
         super.onDispose();
+        disposePayload();
+    }
+
+    private void disposePayload() {
         if (m_payload != null) {
             try {
                 m_payload.close();
             } catch (IOException e) {
                 getLogger().error("Error disposing payload object", e);
             }
+            m_payload = null;
         }
+        m_payloadResource = null;
+        m_payloadSpec = null;
     }
 
     @Override
@@ -47,9 +47,11 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.FileSystemException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Optional;
 
@@ -76,6 +78,7 @@
 import org.knime.core.node.workflow.capture.WorkflowPortObject;
 import org.knime.core.webui.node.dialog.defaultdialog.NodeParametersUtil;
 import org.knime.core.webui.node.dialog.defaultdialog.widget.validation.internal.WorkflowIOParameterNameValidation;
+import org.knime.workflowservices.knime.util.CallWorkflowPayloadStore;
 import org.knime.workflowservices.knime.util.CallWorkflowUtil;
 
 /**
@@ -103,7 +106,7 @@ final class WorkflowOutputNodeModel extends NodeModel implements OutputNode {
      * Path to the temporary file containing the {@link PortObject} to return to the caller workflow.
      *
      * Set during {@link #execute(PortObject[], ExecutionContext)}, when the input {@link PortObject} is written to a
-     * temporary file.
+     * temporary file. Tables are written in the background, the file may still be growing when execute returns.
      *
      * Or set during {@link #loadInternals(File, ExecutionMonitor)} when the node is loaded in executed state.
      */
@@ -124,13 +127,17 @@ protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws Inva
     }
 
     /**
-     * Serialize the node's input to a file that will be returned in {@link #getExternalOutput()}.
+     * Serialize the node's input to a file that will be returned in {@link #getExternalOutput()}. If the caller reads
+     * the outputs while they are still being written, tables are written in the background such that the caller can
+     * start reading them while the remaining rows are written, see
+     * {@link CallWorkflowUtil#writePortObjectInBackground(ExecutionContext, PortObject)}.
      */
     @SuppressWarnings("javadoc")
     @Override
     protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec) throws Exception {
         var result = inObjects[0];
-        m_output = writePortObjectToTempFile(result, exec).toPath();
+        // the node owns the file until it is reset, it doesn't count against the payloads of ongoing calls
+        m_output = CallWorkflowPayloadStore.handOver(writePortObjectToTempFile(result, exec)).toPath();
         return new PortObject[]{result};
     }
 
@@ -140,6 +147,8 @@ private File writePortObjectToTempFile(final PortObject portObj, final Execution
             return CallWorkflowUtil.writeFlowVariables(getAvailableFlowVariables(allTypes).values());
         } else if (portObj instanceof WorkflowPortObject wpo) {
             return CallWorkflowUtil.writeWorkflowPortObjectAndReferencedData(wpo, exec);
+        } else if (CallWorkflowUtil.isGrowingOutputAccepted()) {
+            return CallWorkflowUtil.writePortObjectInBackground(exec, portObj);
         } else {
             return CallWorkflowUtil.writePortObject(exec, portObj);
         }
@@ -147,7 +156,8 @@ private File writePortObjectToTempFile(final PortObject portObj, final Execution
 
     /**
      * This method serves multiple purposes. To retrieve information about the output parameters of a callee workflow
-     * and to retrieve actual results.
+     * and to retrieve actual results. The table in the result may still be written if the caller accepts that, see
+     * {@link CallWorkflowUtil#acceptGrowingOutputs(org.knime.core.node.workflow.WorkflowManager)}.
      *
      * {@inheritDoc}
      */
@@ -196,7 +206,10 @@ protected void loadInternals(final File nodeInternDir, final ExecutionMonitor ex
     }
 
     /**
-     * Store the output port object (if any) into the internal node directory.
+     * Store the output port object (if any) into the internal node directory. The output file is linked rather than
+     * copied if possible, see {@link #hardLinkOrCopy(Path, Path)}. A table that is still being written is saved once
+     * it has been written; that is only the case while a local caller reads it, see {@link #execute(PortObject[],
+     * ExecutionContext)}.
      *
      * {@inheritDoc}
      */
@@ -204,9 +217,11 @@ protected void loadInternals(final File nodeInternDir, final ExecutionMonitor ex
     protected void saveInternals(final File nodeInternDir, final ExecutionMonitor exec)
         throws IOException, CanceledExecutionException {
         if (m_output != null) {
-            final var file = m_output.toFile();
-            FileUtils.copyFile(file,
-                new File(nodeInternDir, "output-resource." + FilenameUtils.getExtension(file.getAbsolutePath())));
+            CallWorkflowUtil.awaitWrite(m_output.toFile());
+            final var target = new File(nodeInternDir,
+                "output-resource." + FilenameUtils.getExtension(m_output.toAbsolutePath().toString())).toPath();
+            Files.deleteIfExists(target);
+            hardLinkOrCopy(m_output, target);
         }
     }
 
@@ -227,8 +242,13 @@ protected void onDispose() {
     @SuppressWarnings("javadoc")
     @Override
     protected void reset() {
-        if (m_output != null && !FileUtils.deleteQuietly(m_output.toFile())) {
-            getLogger().warnWithFormat("Unable to delete temporary file \"%s\"", m_output.toAbsolutePath());
+        if (m_output != null) {
+            // returns once a table that is still being written is no longer written
+            CallWorkflowUtil.cancelWrite(m_output.toFile());
+            CallWorkflowPayloadStore.discard(m_output.toFile());
+            if (Files.exists(m_output)) {
+                getLogger().warnWithFormat("Unable to delete temporary file \"%s\"", m_output.toAbsolutePath());
+            }
         }
         m_output = null;
     }
@@ -240,7 +260,8 @@ public boolean isUseAlwaysFullyQualifiedParameterName() {
 
     /**
      * Attempts to create a hard link from source to target to avoid unnecessary copying. If that is not supported (file
-     * system doesn't support it or paths living on different file system) a copy is performed instead.
+     * system doesn't support it or paths living on different file system) a copy is performed instead, see
+     * {@link #copy(Path, Path)}.
      */
     static Path hardLinkOrCopy(final Path existing, final Path link) throws IOException {
         try {
@@ -252,9 +273,37 @@ static Path hardLinkOrCopy(final Path existing, final Path link) throws IOExcept
                     "Creation of hard links not supported, will copy files instead (and suppress further warnings)",
                     unsupportedException);
             }
-            LOGGER.debugWithFormat("Copying file %s to temp (creating of hard links not supported)", existing);
-            return Files.copy(existing, link);
+            LOGGER.debugWithFormat("Copying file %s to %s (creating of hard links not supported)", existing, link);
+            return copy(existing, link);
+        }
+    }
+
+    /**
+     * Copies a file via {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}, which may
+     * let the operating system copy the bytes rather than passing them through the heap.
+     */
+    private static Path copy(final Path existing, final Path target) throws IOException {
+        var created = false;
+        try (var in = FileChannel.open(existing, StandardOpenOption.READ);
+                var out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            created = true;
+            final var size = in.size();
+            var position = 0L;
+            while (position < size) {
+                final var transferred = in.transferTo(position, size - position, out);
+                if (transferred <= 0) {
+                    throw new IOException("Could not copy " + existing + " to " + target);
+                }
+                position += transferred;
+            }
+        } catch (IOException e) {
+            if (created) {
+                // do not leave a partial copy behind
+                Files.deleteIfExists(target);
+            }
+            throw e;
         }
+        return target;
     }
 
 }
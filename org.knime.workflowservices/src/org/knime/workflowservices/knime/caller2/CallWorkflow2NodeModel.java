@@ -1,9 +1,13 @@
 package org.knime.workflowservices.knime.caller2;
 
 import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -12,6 +16,7 @@
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.InvalidSettingsException;
@@ -23,6 +28,7 @@
 import org.knime.core.node.dialog.ExternalNodeData;
 import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.port.PortType;
 import org.knime.core.node.util.CheckUtils;
 import org.knime.core.node.workflow.FlowVariable;
 import org.knime.core.node.workflow.VariableType;
@@ -73,6 +79,7 @@ protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws Inva
         } else {
             m_configuration.configureCalleeModel(inSpecs);
             ConnectionUtil.validateConfiguration(m_configuration);
+            ConnectionUtil.preloadWorkflow(m_configuration);
         }
         return null;
     }
@@ -121,13 +128,21 @@ private PortObject[] executeWorkflow(final IWorkflowBackend backend, final PortO
         exec.setMessage("Preparing input data for callee workflow.");
 
         Collection<FlowVariable> flowVariables = getAvailableFlowVariables(allTypes).values();
-        Map<String, ExternalNodeData> workflowInput = CallWorkflowUtil.createWorkflowInput(calleeWorkflowProperties.getInputParameters(),
-            dataPortObjects, flowVariables, exec);
+        // tables are handed over by reference if the callee runs in the same JVM, otherwise they may be read by the
+        // backend while they are still being written
+        Map<String, ExternalNodeData> workflowInput =
+            CallWorkflowUtil.createWorkflowInput(calleeWorkflowProperties.getInputParameters(), dataPortObjects,
+                flowVariables, exec, backend.supportsInProcessTransfer(), backend.supportsStreamingInput());
 
         // execute and check success
         exec.setMessage("Executing callee workflow.");
-        backend.loadWorkflow();
-        WorkflowState state = backend.executeAsWorkflowService(workflowInput);
+        WorkflowState state;
+        try {
+            backend.loadWorkflow();
+            state = backend.executeAsWorkflowService(workflowInput);
+        } finally {
+            CallWorkflowUtil.releaseWorkflowInput(workflowInput);
+        }
         CheckUtils.checkArgument(state == WorkflowState.EXECUTED, workflowExecutionFailureMessage(backend, state));
 
         // retrieve and restored callee workflow outputs
@@ -137,12 +152,25 @@ private PortObject[] executeWorkflow(final IWorkflowBackend backend, final PortO
         // there might be multiple flow variable outputs in the callee (which is useless and a badly designed workflow)
         // map guarantees that flow vars are added only once
         var flowVarMap = new LinkedHashMap<String, FlowVariable>();
-        for (var i = 0; i < outputNodes.size(); i++) {
-            WorkflowParameter output = outputNodes.get(i);
-            try (InputStream in = new BufferedInputStream(backend.openOutputResource(output.getParameterName()));
-                    var payload = CallWorkflowPayload.createFrom(in, getOutPortType(i))) {
-                outputPOs[i] = payload.onExecute(exec, fv -> flowVarMap.put(fv.getName(), fv), this);
+        // outputs that are not available as local files are fetched at once, e.g., downloaded concurrently
+        final Map<String, File> outputFiles = new HashMap<>();
+        final List<String> outputsToFetch = new ArrayList<>();
+        for (WorkflowParameter output : outputNodes) {
+            final var name = output.getParameterName();
+            backend.getOutputResourceFile(name).ifPresentOrElse(file -> outputFiles.put(name, file),
+                () -> outputsToFetch.add(name));
+        }
+        final Map<String, InputStream> outputStreams =
+            outputsToFetch.isEmpty() ? Map.of() : backend.openOutputResources(outputsToFetch);
+        try {
+            for (var i = 0; i < outputNodes.size(); i++) {
+                final var name = outputNodes.get(i).getParameterName();
+                try (var payload = readOutput(outputFiles.get(name), outputStreams.get(name), getOutPortType(i))) {
+                    outputPOs[i] = payload.onExecute(exec, fv -> flowVarMap.put(fv.getName(), fv), this);
+                }
             }
+        } finally {
+            outputStreams.values().forEach(IOUtils::closeQuietly);
         }
         flowVarMap.values().stream().forEach(variable -> {
             VariableType expectedType = variable.getVariableType(); // NOSONAR must be declared as raw type
@@ -151,6 +179,20 @@ private PortObject[] executeWorkflow(final IWorkflowBackend backend, final PortO
         return outputPOs;
     }
 
+    /**
+     * Reads an output of the callee workflow, directly from its file if the backend provides one (e.g., for local
+     * callees) and through a stream otherwise.
+     */
+    private static CallWorkflowPayload readOutput(final File file, final InputStream stream, final PortType portType)
+        throws IOException, InvalidSettingsException {
+        if (file != null) {
+            return CallWorkflowPayload.createFrom(file, portType);
+        }
+        try (InputStream in = new BufferedInputStream(stream)) {
+            return CallWorkflowPayload.createFrom(in, portType);
+        }
+    }
+
     @Override
     protected void reset() {
         // no internals
@@ -20,19 +20,29 @@
  */
 package org.knime.workflowservices.knime.util;
 
+import java.io.BufferedInputStream;
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.Optional;
 import java.util.function.Consumer;
 
 import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.dialog.ExternalNodeData;
 import org.knime.core.node.exec.dataexchange.PortObjectRepository;
 import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.port.PortType;
+import org.knime.core.node.port.PortUtil;
 import org.knime.core.node.port.flowvariable.FlowVariablePortObject;
+import org.knime.core.node.port.flowvariable.FlowVariablePortObjectSpec;
+import org.knime.core.node.util.CheckUtils;
 import org.knime.core.node.workflow.FlowVariable;
 import org.knime.core.node.workflow.capture.WorkflowPortObject;
 import org.knime.core.node.workflow.virtual.AbstractPortObjectRepositoryNodeModel;
@@ -66,6 +76,111 @@ public static CallWorkflowPayload createFrom(final InputStream stream, final Por
         }
     }
 
+    /**
+     * Creates the actual payload object based on the selected port type, reading the data directly from a local file.
+     * Compared to {@link #createFrom(InputStream, PortType)} this avoids copying the data to a temporary file first;
+     * tables in KNIME's table format use the file as their storage. The file must not be deleted before the payload
+     * is closed.
+     *
+     * @param file the file holding the data, as written by
+     *            {@link CallWorkflowUtil#writePortObject(ExecutionContext, PortObject)} or
+     *            {@link CallWorkflowUtil#writeFlowVariables(java.util.Collection)}
+     * @param portType
+     * @return a {@link CallWorkflowPayload}
+     * @throws IOException
+     * @throws InvalidSettingsException
+     */
+    public static CallWorkflowPayload createFrom(final File file, final PortType portType)
+        throws IOException, InvalidSettingsException {
+        if (BufferedDataTable.TYPE.equals(portType)) {
+            return TableCallWorkflowPayload.createFrom(file);
+        } else if (FlowVariablePortObject.TYPE.equals(portType)) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+                return FlowVariablesCallWorkflowPayload.createFrom(in);
+            }
+        } else {
+            return PortObjectCallWorkflowPayload.createFrom(file);
+        }
+    }
+
+    /**
+     * Creates the actual payload object based on the selected port type, reading the data from the given resource.
+     * Tables and flow variables that have been handed over in-process are used directly, see
+     * {@link InProcessHandoff}.
+     *
+     * @param resource the location of the data, as set by the caller workflow
+     * @param portType
+     * @return a {@link CallWorkflowPayload}
+     * @throws IOException
+     * @throws InvalidSettingsException if the resource refers to handed over data that is no longer available
+     */
+    public static CallWorkflowPayload createFrom(final URI resource, final PortType portType)
+        throws IOException, InvalidSettingsException {
+        final var handedOffTable = InProcessHandoff.lookup(resource);
+        if (handedOffTable.isPresent() && BufferedDataTable.TYPE.equals(portType)) {
+            return new InProcessTableCallWorkflowPayload(handedOffTable.get());
+        }
+        final var handedOffFlowVariables = InProcessHandoff.lookupFlowVariables(resource);
+        if (handedOffFlowVariables.isPresent() && FlowVariablePortObject.TYPE.equals(portType)) {
+            return FlowVariablesCallWorkflowPayload.createFrom(handedOffFlowVariables.get());
+        }
+        CheckUtils.checkSetting(!InProcessHandoff.isInProcess(resource),
+            "The data provided by the calling workflow is no longer available");
+        try (InputStream in = new BufferedInputStream(CallWorkflowUtil.openInputResource(resource))) {
+            return createFrom(in, portType);
+        }
+    }
+
+    /**
+     * Reads the spec of the data at the given resource without reading the data itself, if possible. Used to configure
+     * the Workflow Input node before (and without) decoding the payload via {@link #createFrom(URI, PortType)}. Port
+     * objects and tables in local files store their spec separately from the data, such that only a few kilobytes are
+     * read.
+     *
+     * @param resource the location of the data, as set by the caller workflow
+     * @param portType
+     * @return the spec, empty if it cannot be read separately from the data
+     * @throws IOException if reading the resource fails
+     */
+    public static Optional<PortObjectSpec> readSpec(final URI resource, final PortType portType) throws IOException {
+        if (FlowVariablePortObject.TYPE.equals(portType)) {
+            return Optional.of(FlowVariablePortObjectSpec.INSTANCE);
+        } else if (InProcessHandoff.isInProcess(resource)) {
+            return InProcessHandoff.lookup(resource).map(BufferedDataTable::getDataTableSpec);
+        } else if (!"file".equalsIgnoreCase(resource.getScheme())) {
+            if (!BufferedDataTable.TYPE.equals(portType)) {
+                return Optional.empty();
+            }
+            // only the beginning of the resource is read
+            try (InputStream in = new BufferedInputStream(CallWorkflowUtil.openInputResource(resource))) {
+                return TableCallWorkflowPayload.readSpec(in).map(PortObjectSpec.class::cast);
+            }
+        }
+        final var file = new File(resource);
+        if (BufferedDataTable.TYPE.equals(portType)) {
+            return TableCallWorkflowPayload.readSpec(file).map(PortObjectSpec.class::cast);
+        }
+        return Optional.ofNullable(PortUtil.readObjectSpecFromFile(file));
+    }
+
+    /**
+     * Writes a table for a resource based input parameter of a callee workflow, e.g., a Workflow Input node that
+     * receives a table. The file the returned data refers to is managed by {@link CallWorkflowPayloadStore} and must be
+     * released via {@link CallWorkflowPayloadStore#release(URI)} once the callee workflow has read it.
+     *
+     * @param parameterName the workflow parameter name
+     * @param table the table to send
+     * @param exec for writing the file
+     * @return data for the workflow input parameter, with the table in a file
+     * @throws IOException when creating the file or writing to it
+     * @throws CanceledExecutionException when being interrupted during writing the file
+     */
+    public static ExternalNodeData createTableInput(final String parameterName, final BufferedDataTable table,
+        final ExecutionContext exec) throws IOException, CanceledExecutionException {
+        final var file = CallWorkflowUtil.writePortObject(exec, table);
+        return CallWorkflowUtil.createExternalNodeData(parameterName, BufferedDataTable.TYPE, file);
+    }
+
     /**
      * Creates a new port object or returns the existing one if no additional functionality should be applied to the
      * existing port object.
@@ -83,4 +198,14 @@ public PortObject onExecute(final ExecutionContext exec, final Consumer<FlowVari
 
     public PortObjectSpec getSpec();
 
+    /**
+     * @return whether {@link #onExecute(ExecutionContext, Consumer, AbstractPortObjectRepositoryNodeModel)} can be
+     *         called again for subsequent executions, such that a Workflow Input node that receives the same resource
+     *         again doesn't need to read it again; only payloads that hold their data themselves rather than refer to
+     *         the resource or the caller's data are reusable, since the caller releases them after each call
+     */
+    public default boolean isReusable() {
+        return false;
+    }
+
 }
@@ -0,0 +1,445 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.workflowservices.knime.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.FileUtil;
+
+/**
+ * Owns the temporary files that contain the inputs and outputs of callee workflows. Every payload file is created via
+ * {@link #createFile(String, String, long)} (or adopted via {@link #register(File)}) and starts with one reference,
+ * held by its creator. Further references are acquired via {@link #retain(URI)}, e.g., by the
+ * {@link PortObjectFileCache}, and each reference is given up via {@link #release(URI)}. The file is deleted once the
+ * last reference has been released, usually when the call of the callee workflow has completed, see
+ * {@link CallWorkflowUtil#releaseWorkflowInput(java.util.Map)}. Files that are kept beyond a call, e.g., the output
+ * of a Workflow Output node, are {@link #handOver(File) handed over} to their owner.
+ *
+ * The store keeps track of the files and bytes that are outstanding, see {@link #getStatistics()}. The total size of
+ * the outstanding files can be limited via {@value #PROPERTY_MAX_OUTSTANDING_MB}. Small payloads can be placed in a
+ * fast scratch directory, e.g., on a tmpfs, via {@value #PROPERTY_SCRATCH_DIR}. Files that have not been released
+ * when the JVM shuts down, e.g., because a caller failed to release them, are deleted then.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class CallWorkflowPayloadStore {
+
+    /**
+     * System property that points to a directory for small payloads, e.g., on a tmpfs. If not set, all payloads are
+     * written to the temporary directory of the workflow.
+     */
+    public static final String PROPERTY_SCRATCH_DIR = "knime.workflowservices.payload.scratchDir";
+
+    /**
+     * System property that sets the expected size in kilobytes up to which payloads are written to the
+     * {@link #PROPERTY_SCRATCH_DIR scratch directory}. Defaults to {@value #DEFAULT_SCRATCH_MAX_KB}.
+     */
+    public static final String PROPERTY_SCRATCH_MAX_KB = "knime.workflowservices.payload.scratchMaxSizeKB";
+
+    /**
+     * System property that limits the total size in megabytes of the payload files that have not been released yet.
+     * Writing a payload that exceeds the limit fails. Zero or negative values, the default, disable the limit.
+     */
+    public static final String PROPERTY_MAX_OUTSTANDING_MB = "knime.workflowservices.payload.maxOutstandingMB";
+
+    private static final int DEFAULT_SCRATCH_MAX_KB = 1024;
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(CallWorkflowPayloadStore.class);
+
+    /**
+     * The number of payload files and bytes that are currently outstanding, and the number of payload files created
+     * and deleted since startup.
+     *
+     * @param outstandingFiles the number of files that have not been released yet
+     * @param outstandingBytes the total size of these files as recorded when they were written
+     * @param createdFiles the number of files created since startup
+     * @param deletedFiles the number of files deleted since startup, including files deleted by others
+     */
+    public record Statistics(int outstandingFiles, long outstandingBytes, long createdFiles, long deletedFiles) {
+    }
+
+    private static final Map<URI, Handle> FILES = new ConcurrentHashMap<>();
+
+    private static final AtomicLong OUTSTANDING_BYTES = new AtomicLong();
+
+    private static final AtomicLong CREATED_FILES = new AtomicLong();
+
+    private static final AtomicLong DELETED_FILES = new AtomicLong();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(CallWorkflowPayloadStore::deleteLeakedFiles,
+            "KNIME-Workflow-Services-Payload-Cleanup"));
+    }
+
+    private CallWorkflowPayloadStore() {
+    }
+
+    /**
+     * Creates an empty payload file that is owned by the caller. The caller should write it via
+     * {@link #newOutputStream(File)}, must call {@link #written(File)} once the payload has been written, and
+     * {@link #release(URI)} once the file is no longer needed.
+     *
+     * @param prefix the prefix of the file name
+     * @param suffix the suffix of the file name
+     * @param expectedSize the expected size of the payload in bytes or a negative value if unknown; small payloads are
+     *            written to the {@link #PROPERTY_SCRATCH_DIR scratch directory}, if configured
+     * @return the created file
+     * @throws IOException if the file cannot be created or the outstanding payloads already exceed the
+     *             {@link #PROPERTY_MAX_OUTSTANDING_MB quota}
+     */
+    public static File createFile(final String prefix, final String suffix, final long expectedSize)
+        throws IOException {
+        checkQuota();
+        final var scratchDir = expectedSize >= 0 && expectedSize <= getScratchMaxBytes() ? getScratchDir() : null;
+        final File file;
+        if (scratchDir != null) {
+            file = Files.createTempFile(scratchDir, prefix, suffix).toFile();
+        } else {
+            file = FileUtil.createTempFile(prefix, suffix, false);
+        }
+        return register(file);
+    }
+
+    /**
+     * Takes over the ownership of the given file, e.g., a file that was created by other means. The caller holds the
+     * only reference to it.
+     *
+     * @param file an existing file
+     * @return the argument
+     */
+    public static File register(final File file) {
+        final var handle = new Handle(file, file.length());
+        OUTSTANDING_BYTES.addAndGet(handle.m_size);
+        CREATED_FILES.incrementAndGet();
+        final var previous = FILES.put(file.toURI(), handle);
+        if (previous != null) {
+            // the file has been deleted by others and a new file with the same name was created
+            previous.forget();
+        }
+        return file;
+    }
+
+    /**
+     * Stops managing a payload file without deleting it, e.g., because a node keeps it as its output until the node is
+     * reset. The file no longer counts against the {@link #PROPERTY_MAX_OUTSTANDING_MB quota} and the caller becomes
+     * responsible for deleting it. Files not managed by this store are ignored.
+     *
+     * @param file a file created via {@link #createFile(String, String, long)}, it may still be written
+     * @return the argument
+     */
+    public static File handOver(final File file) {
+        final var handle = FILES.get(file.toURI());
+        if (handle != null) {
+            handle.untrack();
+        }
+        return file;
+    }
+
+    /**
+     * Opens a payload file for writing. The bytes are counted against the {@link #PROPERTY_MAX_OUTSTANDING_MB quota}
+     * while they are written, such that writing a large payload fails before it fills up the disk rather than only
+     * once it has been written.
+     *
+     * @param file a file created via {@link #createFile(String, String, long)}, files not managed by this store are
+     *            opened without counting the bytes
+     * @return a stream that writes to the file, the caller must close it
+     * @throws IOException if the file cannot be opened; the stream throws an exception if the outstanding payloads
+     *             exceed the quota, the caller must {@link #discard(File) discard} the file in this case
+     */
+    public static OutputStream newOutputStream(final File file) throws IOException {
+        final var handle = FILES.get(file.toURI());
+        final OutputStream out = new FileOutputStream(file);
+        return handle == null ? out : new QuotaOutputStream(out, handle);
+    }
+
+    /**
+     * Records the size of a payload file once it has been written.
+     *
+     * @param file a file created via {@link #createFile(String, String, long)}
+     * @throws IOException if the outstanding payloads exceed the {@link #PROPERTY_MAX_OUTSTANDING_MB quota}; the
+     *             file is deleted in this case
+     */
+    public static void written(final File file) throws IOException {
+        final var handle = FILES.get(file.toURI());
+        if (handle == null) {
+            return;
+        }
+        handle.setSize(file.length());
+        try {
+            checkQuota();
+        } catch (IOException e) {
+            discard(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Acquires another reference to a payload file.
+     *
+     * @param resource the URI of the file
+     * @return whether a reference was acquired, false if the file is not managed by this store (anymore)
+     */
+    public static boolean retain(final URI resource) {
+        final var handle = FILES.get(resource);
+        return handle != null && handle.retain();
+    }
+
+    /**
+     * Gives up a reference to a payload file. The file is deleted once the last reference has been released.
+     * Resources that are not managed by this store are ignored.
+     *
+     * @param resource the URI of the file
+     */
+    public static void release(final URI resource) {
+        final var handle = FILES.get(resource);
+        if (handle != null) {
+            handle.release();
+        }
+    }
+
+    /**
+     * Deletes a payload file regardless of its references, e.g., because it could not be written completely.
+     *
+     * @param file the file to delete, files not managed by this store are deleted, too
+     */
+    public static void discard(final File file) {
+        final var handle = FILES.get(file.toURI());
+        if (handle != null) {
+            handle.delete();
+        } else {
+            FileUtils.deleteQuietly(file);
+        }
+    }
+
+    /**
+     * @return the number of payload files and bytes outstanding; files that have been deleted by others in the
+     *         meantime are no longer counted as outstanding
+     */
+    public static Statistics getStatistics() {
+        FILES.values().stream().filter(handle -> !handle.m_file.exists()).forEach(Handle::forget);
+        return new Statistics(FILES.size(), OUTSTANDING_BYTES.get(), CREATED_FILES.get(), DELETED_FILES.get());
+    }
+
+    private static void checkQuota() throws IOException {
+        final var maxMB = Long.getLong(PROPERTY_MAX_OUTSTANDING_MB, 0);
+        if (maxMB <= 0 || OUTSTANDING_BYTES.get() <= maxMB << 20) {
+            return;
+        }
+        // files deleted by others must not count against the quota
+        final var statistics = getStatistics();
+        if (statistics.outstandingBytes() > maxMB << 20) {
+            throw new IOException(String.format(
+                "The data passed to and from callee workflows exceeds the limit of %d MB (%d files with %d bytes are "
+                    + "outstanding), see system property %s",
+                maxMB, statistics.outstandingFiles(), statistics.outstandingBytes(), PROPERTY_MAX_OUTSTANDING_MB));
+        }
+    }
+
+    private static long getScratchMaxBytes() {
+        return Long.getLong(PROPERTY_SCRATCH_MAX_KB, DEFAULT_SCRATCH_MAX_KB) << 10;
+    }
+
+    private static Path getScratchDir() {
+        final var dir = System.getProperty(PROPERTY_SCRATCH_DIR);
+        if (StringUtils.isBlank(dir)) {
+            return null;
+        }
+        try {
+            return Files.createDirectories(Paths.get(dir));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Cannot use " + dir + " for call workflow payloads, using the temporary directory instead: "
+                + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private static void deleteLeakedFiles() {
+        final var statistics = getStatistics();
+        if (statistics.outstandingFiles() == 0) {
+            return;
+        }
+        LOGGER.debug(String.format("Deleting %d call workflow payload files (%d bytes) that have not been released",
+            statistics.outstandingFiles(), statistics.outstandingBytes()));
+        FILES.values().forEach(Handle::delete);
+    }
+
+    /** Counts the bytes written to a payload file against the quota, see {@link #newOutputStream(File)}. */
+    private static final class QuotaOutputStream extends FilterOutputStream {
+
+        /** The size is recorded and the quota checked whenever this many bytes have been written since. */
+        private static final long CHECK_INTERVAL = 1 << 20;
+
+        private final Handle m_handle;
+
+        private long m_written;
+
+        private long m_checked;
+
+        QuotaOutputStream(final OutputStream out, final Handle handle) {
+            super(out);
+            m_handle = handle;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            count(1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            count(len);
+        }
+
+        private void count(final long bytes) throws IOException {
+            m_written += bytes;
+            if (m_written - m_checked >= CHECK_INTERVAL) {
+                m_checked = m_written;
+                m_handle.setSize(m_written);
+                checkQuota();
+            }
+        }
+    }
+
+    private static final class Handle {
+
+        private final File m_file;
+
+        /** Starts with the reference held by the creator of the file. */
+        private final AtomicInteger m_references = new AtomicInteger(1);
+
+        /**
+         * The size counted in {@link #OUTSTANDING_BYTES}, guarded by this such that it is not counted again once the
+         * file is no longer tracked, see {@link #untrack()}.
+         */
+        private long m_size;
+
+        Handle(final File file, final long size) {
+            m_file = file;
+            m_size = size;
+        }
+
+        /**
+         * Records the current size of the file, unless the file is no longer tracked.
+         */
+        synchronized void setSize(final long size) {
+            if (FILES.get(m_file.toURI()) != this) {
+                return;
+            }
+            OUTSTANDING_BYTES.addAndGet(size - m_size);
+            m_size = size;
+        }
+
+        /**
+         * @return whether a reference was acquired, false if the file has already been deleted
+         */
+        boolean retain() {
+            var references = m_references.get();
+            while (references > 0) {
+                if (m_references.compareAndSet(references, references + 1)) {
+                    return true;
+                }
+                references = m_references.get();
+            }
+            return false;
+        }
+
+        void release() {
+            if (m_references.decrementAndGet() == 0 && forget()) {
+                FileUtils.deleteQuietly(m_file);
+            }
+        }
+
+        void delete() {
+            m_references.set(0);
+            if (forget()) {
+                FileUtils.deleteQuietly(m_file);
+            }
+        }
+
+        /**
+         * Stops tracking the file, which has been or is about to be deleted.
+         *
+         * @return whether the file was tracked until now
+         */
+        boolean forget() {
+            if (!untrack()) {
+                return false;
+            }
+            DELETED_FILES.incrementAndGet();
+            return true;
+        }
+
+        /**
+         * Stops tracking the file without deleting it.
+         *
+         * @return whether the file was tracked until now
+         */
+        synchronized boolean untrack() {
+            if (!FILES.remove(m_file.toURI(), this)) {
+                return false;
+            }
+            OUTSTANDING_BYTES.addAndGet(-m_size);
+            return true;
+        }
+    }
+}
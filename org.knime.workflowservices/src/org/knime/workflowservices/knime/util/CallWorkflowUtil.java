@@ -20,13 +20,26 @@
  */
 package org.knime.workflowservices.knime.util;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.knime.core.node.BufferedDataTable;
@@ -34,18 +47,23 @@
 import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.dialog.ExternalNodeData;
 import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortType;
 import org.knime.core.node.port.PortUtil;
 import org.knime.core.node.port.flowvariable.FlowVariablePortObject;
 import org.knime.core.node.workflow.FlowVariable;
+import org.knime.core.node.workflow.NodeContext;
+import org.knime.core.node.workflow.WorkflowManager;
 import org.knime.core.node.workflow.capture.ReferenceReaderDataUtil;
 import org.knime.core.node.workflow.capture.WorkflowPortObject;
-import org.knime.core.util.FileUtil;
+import org.knime.core.util.ThreadUtils;
 import org.knime.workflowservices.IWorkflowBackend.ResourceContentType;
 import org.knime.workflowservices.knime.caller.WorkflowParameter;
 
+import com.google.common.collect.MapMaker;
+
 import jakarta.ws.rs.core.UriBuilder;
 
 /**
@@ -54,6 +72,24 @@
  */
 public final class CallWorkflowUtil {
 
+    /**
+     * System property to limit the number of input ports that are written to disk concurrently when preparing the
+     * input of a callee workflow. Defaults to half the number of available processors.
+     */
+    public static final String PROPERTY_MAX_CONCURRENT_PORT_WRITES = "knime.workflowservices.maxConcurrentPortWrites";
+
+    /**
+     * System property to write flow variables in the compact binary format (value <code>BINARY</code>) rather than in
+     * the XML format. Defaults to XML, since callee workflows on an older KNIME Server or Hub cannot read the binary
+     * format; only set it if all callees run on a version that can. Both formats are read.
+     */
+    public static final String PROPERTY_FLOW_VARIABLE_PAYLOAD_FORMAT =
+        "knime.workflowservices.flowVariablePayloadFormat";
+
+    /** The callee workflows that accept growing outputs, see {@link #acceptGrowingOutputs(WorkflowManager)}. */
+    private static final Set<WorkflowManager> GROWING_OUTPUT_READERS =
+        Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+
     private CallWorkflowUtil() {
     }
 
@@ -61,8 +97,11 @@ private CallWorkflowUtil() {
      * Prepare an {@link ExternalNodeData} instance for each of the Workflow Input nodes in the callee workflow.
      *
      * The port objects will be written to files and set as resource on the created {@link ExternalNodeData} instances.
+     * The files are written concurrently, see {@link #PROPERTY_MAX_CONCURRENT_PORT_WRITES}. If writing one of them fails
+     * or the execution is canceled, the remaining writes are stopped and all files written so far are deleted.
      * The same is done for the given flow variables, if there is at least one flow variable input parameter in the
-     * callee workflow.
+     * callee workflow. The files are owned by the {@link CallWorkflowPayloadStore}; they are deleted when the input is
+     * released after the callee workflow has been executed, see {@link #releaseWorkflowInput(Map)}.
      *
      * @param inputs the input parameters of the workflow to be called
      * @param dataPortObjects the data provided to this node's input ports, the i-th element corresponds to the i-th
@@ -81,45 +120,285 @@ public static Map<String, ExternalNodeData> createWorkflowInput(
         final List<WorkflowParameter> inputs, final PortObject[] dataPortObjects,
         final Collection<FlowVariable> flowVariables, final ExecutionContext exec)
         throws IOException, CanceledExecutionException {
+        return createWorkflowInput(inputs, dataPortObjects, flowVariables, exec, false, false, false);
+    }
+
+    /**
+     * Same as {@link #createWorkflowInput(List, PortObject[], Collection, ExecutionContext)}, but optionally hands
+     * tables and flow variables over by reference instead of writing them to files. This is only possible if the callee
+     * workflow runs in the same JVM, see
+     * {@link org.knime.workflowservices.IWorkflowBackend#supportsInProcessTransfer()}.
+     *
+     * The files written for port objects are reused when the same port object is passed again, e.g., in the next
+     * iteration of a loop. The same applies to the file written for unchanged flow variables. The input must be
+     * released after the callee workflow has been executed, see {@link #releaseWorkflowInput(Map)}.
+     *
+     * @param inputs the input parameters of the workflow to be called
+     * @param dataPortObjects the data provided to this node's input ports, the i-th element corresponds to the i-th
+     *            element in <code>inputs</code>
+     * @param flowVariables flow variables to send to callee workflow if it contains an input parameter of type
+     *            {@link FlowVariablePortObject}.
+     * @param exec to write port objects
+     * @param inProcess whether to hand over tables and flow variables by reference, see {@link InProcessHandoff}
+     * @return a map from callee input parameter name to {@link ExternalNodeData} that contains the input data required
+     *         for callee workflow execution
+     * @throws CanceledExecutionException
+     * @throws IOException
+     */
+    public static Map<String, ExternalNodeData> createWorkflowInput(final List<WorkflowParameter> inputs,
+        final PortObject[] dataPortObjects, final Collection<FlowVariable> flowVariables, final ExecutionContext exec,
+        final boolean inProcess) throws IOException, CanceledExecutionException {
+        return createWorkflowInput(inputs, dataPortObjects, flowVariables, exec, inProcess, false);
+    }
+
+    /**
+     * Same as {@link #createWorkflowInput(List, PortObject[], Collection, ExecutionContext, boolean)}, but optionally
+     * writes tables in the background, such that the callee workflow can start reading them while the remaining rows
+     * are still being written. This is only possible if the backend reads its input resources via
+     * {@link #openInputResource(URI)}, see
+     * {@link org.knime.workflowservices.IWorkflowBackend#supportsStreamingInput()}.
+     * Tables handed over by reference are not written at all.
+     *
+     * @param inputs the input parameters of the workflow to be called
+     * @param dataPortObjects the data provided to this node's input ports, the i-th element corresponds to the i-th
+     *            element in <code>inputs</code>
+     * @param flowVariables flow variables to send to callee workflow if it contains an input parameter of type
+     *            {@link FlowVariablePortObject}.
+     * @param exec to write port objects
+     * @param inProcess whether to hand over tables and flow variables by reference, see {@link InProcessHandoff}
+     * @param streamTables whether to write tables in the background, see {@link StreamingTableTransfer}
+     * @return a map from callee input parameter name to {@link ExternalNodeData} that contains the input data required
+     *         for callee workflow execution
+     * @throws CanceledExecutionException
+     * @throws IOException
+     */
+    public static Map<String, ExternalNodeData> createWorkflowInput(final List<WorkflowParameter> inputs,
+        final PortObject[] dataPortObjects, final Collection<FlowVariable> flowVariables, final ExecutionContext exec,
+        final boolean inProcess, final boolean streamTables) throws IOException, CanceledExecutionException {
+        return createWorkflowInput(inputs, dataPortObjects, flowVariables, exec, inProcess, streamTables, true);
+    }
+
+    /**
+     * Opens an input resource created by one of the <code>createWorkflowInput</code> methods, e.g., to upload it to a
+     * remote executor. If the table in the resource is still being written, the returned stream waits for the
+     * remaining rows.
+     *
+     * @param resource the resource of an {@link ExternalNodeData} in the workflow input
+     * @return a stream of the resource's content
+     * @throws IOException if the resource cannot be opened
+     */
+    public static InputStream openInputResource(final URI resource) throws IOException {
+        return openResource(resource);
+    }
+
+    /**
+     * Opens an output resource of a callee workflow, e.g., to read it in the caller. If the table in the resource is
+     * still being written by the Workflow Output node, the returned stream waits for the remaining rows.
+     *
+     * @param resource the resource of an {@link ExternalNodeData} provided by a Workflow Output node
+     * @return a stream of the resource's content
+     * @throws IOException if the resource cannot be opened
+     * @see #writePortObjectInBackground(ExecutionContext, PortObject)
+     */
+    public static InputStream openOutputResource(final URI resource) throws IOException {
+        return openResource(resource);
+    }
+
+    private static InputStream openResource(final URI resource) throws IOException {
+        if ("file".equalsIgnoreCase(resource.getScheme())) {
+            return StreamingTableTransfer.open(new File(resource));
+        }
+        return resource.toURL().openStream();
+    }
+
+    /**
+     * Releases the input of a callee workflow created by
+     * {@link #createWorkflowInput(List, PortObject[], Collection, ExecutionContext, boolean)} once the callee workflow
+     * has been executed. Tables that are still being written are no longer written, handed over tables and flow
+     * variables are unregistered, and the written files are {@link CallWorkflowPayloadStore#release(URI) released}:
+     * files that cannot be reused are deleted right away, cached files are deleted once they are evicted from the cache
+     * and no caller needs them any more.
+     *
+     * @param workflowInput the input of the callee workflow
+     */
+    public static void releaseWorkflowInput(final Map<String, ExternalNodeData> workflowInput) {
+        InProcessHandoff.unregister(workflowInput.values());
+        // the flow variables file is shared by all flow variable inputs, but acquired only once
+        workflowInput.values().stream().map(ExternalNodeData::getResource).filter(Objects::nonNull).distinct()
+            .forEach(resource -> {
+                StreamingTableTransfer.cancel(resource);
+                CallWorkflowPayloadStore.release(resource);
+            });
+    }
+
+    private static Map<String, ExternalNodeData> createWorkflowInput(final List<WorkflowParameter> inputs,
+        final PortObject[] dataPortObjects, final Collection<FlowVariable> flowVariables, final ExecutionContext exec,
+        final boolean inProcess, final boolean streamTables, final boolean useCache)
+        throws IOException, CanceledExecutionException {
 
         Map<String, ExternalNodeData> workflowInput = new HashMap<>();
+        final var writtenFiles = new WrittenFiles();
+        final var inProcessResources = new URI[dataPortObjects.length];
+        var success = false;
+        try {
+            // if there is at least one input parameter that expects flow variables, write them to a file (unlike
+            // other port objects, flow variable port objects are pure markers without content)
+            File serializedFlowVariables = null;
+            URI inProcessFlowVariables = null;
+            if (inputs.stream().map(WorkflowParameter::getPortType).anyMatch(FlowVariablePortObject.TYPE::equals)) {
+                // do not write flow variables with reserved names, such as knime.workspace
+                // they can not be restored using FlowVariable.load - for good reasons
+                if (inProcess) {
+                    inProcessFlowVariables = InProcessHandoff.registerFlowVariables(
+                        FlowVariablesCallWorkflowPayload.getSendableFlowVariables(flowVariables));
+                } else if (useCache) {
+                    // in a loop, the flow variables often don't change from one iteration to the next
+                    serializedFlowVariables = writtenFiles.add(PortObjectFileCache
+                        .acquireFlowVariables(flowVariables, () -> writeFlowVariables(flowVariables)));
+                } else {
+                    serializedFlowVariables = writtenFiles.add(writeFlowVariables(flowVariables));
+                }
+            }
+
+            // writing to disk can be expensive, the port objects are independent and written concurrently
+            final var pool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(getMaxConcurrentPortWrites());
+            final List<Future<File>> tempFiles = new ArrayList<>(dataPortObjects.length);
+            for (var input = 0; input < dataPortObjects.length; input++) {
+                final var portObject = dataPortObjects[input];
+                final var portType = inputs.get(input).getPortType();
+                if (FlowVariablePortObject.TYPE.equals(portType)) {
+                    // reuse the written file or the registered flow variables
+                    inProcessResources[input] = inProcessFlowVariables;
+                    tempFiles.add(CompletableFuture.completedFuture(serializedFlowVariables));
+                } else if (inProcess && BufferedDataTable.TYPE.equals(portType)
+                    && portObject instanceof BufferedDataTable table) {
+                    // the callee runs in the same JVM, nothing needs to be written
+                    inProcessResources[input] = InProcessHandoff.register(table);
+                    tempFiles.add(CompletableFuture.completedFuture(null));
+                } else if (streamTables && BufferedDataTable.TYPE.equals(portType)
+                    && portObject instanceof BufferedDataTable table
+                    && RowTableCodec.isSupported(table.getDataTableSpec())) {
+                    // the callee reads the rows while they are written
+                    final var portExec = exec.createSubExecutionContext(1d / dataPortObjects.length);
+                    final var file = StreamingTableTransfer.start(table, portExec);
+                    tempFiles.add(CompletableFuture.completedFuture(writtenFiles.add(file)));
+                } else {
+                    final var portExec = exec.createSubExecutionContext(1d / dataPortObjects.length);
+                    tempFiles.add(pool.enqueue(ThreadUtils.callableWithContext(() -> {
+                        if (!useCache || WorkflowPortObject.TYPE.equals(portType)) {
+                            // workflow port objects contain the referenced data of the workflow, they are not cached
+                            return writtenFiles.add(writeInputPortObject(portObject, portType, portExec));
+                        }
+                        return writtenFiles.add(
+                            PortObjectFileCache.acquire(portObject, () -> writePortObject(portExec, portObject)));
+                    })));
+                }
+            }
 
-        // if there is at least one input parameter that expects flow variables, write them to a file (unlike other
-        // port objects, flow variable port objects are pure markers without content)
-        File serializedFlowVariables = null;
-        if (inputs.stream().map(WorkflowParameter::getPortType).anyMatch(FlowVariablePortObject.TYPE::equals)) {
-            // do not write flow variables with reserved names, such as knime.workspace
-            // they can not be restored using FlowVariable.load - for good reasons
+            try {
+                for (var input = 0; input < dataPortObjects.length; input++) {
+                    // identifier of the external node data object is the node id of the callee workflow Input node
+                    WorkflowParameter portDesc = inputs.get(input);
+                    String key = portDesc.getParameterName();
+                    final var tempFile = waitForPortWrite(tempFiles.get(input), exec);
+                    if (inProcessResources[input] != null) {
+                        workflowInput.put(key, ExternalNodeData.builder(key) //
+                            .resource(inProcessResources[input]) //
+                            .contentType(ResourceContentType.of(portDesc.getPortType()).asString()) //
+                            .build());
+                    } else {
+                        workflowInput.put(key, createExternalNodeData(key, portDesc.getPortType(), tempFile));
+                    }
+                }
+            } finally {
+                // stops the remaining writes if one of them failed or the node was canceled
+                tempFiles.forEach(f -> f.cancel(true));
+            }
+            success = true;
+        } finally {
+            if (!success) {
+                writtenFiles.discard();
+                Arrays.stream(inProcessResources).filter(Objects::nonNull).distinct()
+                    .forEach(InProcessHandoff::unregister);
+            }
+        }
+
+        return workflowInput;
+    }
+
+    private static File writeInputPortObject(final PortObject portObject, final PortType portType,
+        final ExecutionContext exec) throws IOException, CanceledExecutionException {
+        if (WorkflowPortObject.TYPE.equals(portType)) {
+            return writeWorkflowPortObjectAndReferencedData((WorkflowPortObject)portObject, exec);
+        } else {
+            // serialize port object to temporary file
+            return writePortObject(exec, portObject);
+        }
+    }
 
-            serializedFlowVariables = writeFlowVariables(flowVariables);
+    private static File waitForPortWrite(final Future<File> write, final ExecutionContext exec)
+        throws IOException, CanceledExecutionException {
+        while (true) {
+            exec.checkCanceled();
+            try {
+                return write.get(1, TimeUnit.SECONDS);
+            } catch (TimeoutException e) { // NOSONAR check for cancellation and continue waiting
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CanceledExecutionException("Interrupted while writing the input data");
+            } catch (ExecutionException e) {
+                final var cause = e.getCause();
+                if (cause instanceof IOException ioe) {
+                    throw ioe;
+                } else if (cause instanceof CanceledExecutionException cee) {
+                    throw cee;
+                } else if (cause instanceof RuntimeException re) {
+                    throw re;
+                }
+                throw new IOException("Could not write input data: " + cause.getMessage(), cause);
+            }
         }
+    }
+
+    /**
+     * @return the maximum number of input ports that are written to disk concurrently
+     * @see #PROPERTY_MAX_CONCURRENT_PORT_WRITES
+     */
+    private static int getMaxConcurrentPortWrites() {
+        return Math.max(1, Integer.getInteger(PROPERTY_MAX_CONCURRENT_PORT_WRITES,
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2)));
+    }
 
-        // PERFORMANCE writing to disk can be expensive, parallelize this?
-        for (var input = 0; input < dataPortObjects.length; input++) {
-            final var portObject = dataPortObjects[input];
+    /**
+     * The files written for the input ports of a callee workflow. If preparing the input fails, the files are released,
+     * including those of writes that are still running at that time.
+     */
+    private static final class WrittenFiles {
 
-            // identifier of the external node data object is the node id of the callee workflow Input node
-            WorkflowParameter portDesc = inputs.get(input);
-            String key = portDesc.getParameterName();
+        private final List<File> m_files = new ArrayList<>();
 
-            File tempFile = null;
+        private boolean m_discarded;
 
-            if (FlowVariablePortObject.TYPE.equals(portDesc.getPortType())) {
-                // reuse the written file
-                tempFile = serializedFlowVariables;
-            } else if (WorkflowPortObject.TYPE.equals(portDesc.getPortType())) {
-                tempFile = writeWorkflowPortObjectAndReferencedData((WorkflowPortObject)portObject, exec);
+        /** @param file a file the caller holds a {@link CallWorkflowPayloadStore} reference to */
+        synchronized File add(final File file) {
+            if (m_discarded) {
+                release(file);
             } else {
-                // serialize port object to temporary file
-                tempFile = writePortObject(exec, portObject);
+                m_files.add(file);
             }
+            return file;
+        }
 
-            final var externalNodeData = createExternalNodeData(key, portDesc.getPortType(), tempFile);
-
-            workflowInput.put(key, externalNodeData);
+        synchronized void discard() {
+            m_discarded = true;
+            m_files.forEach(WrittenFiles::release);
+            m_files.clear();
         }
 
-        return workflowInput;
+        private static void release(final File file) {
+            StreamingTableTransfer.cancel(file.toURI());
+            CallWorkflowPayloadStore.release(file.toURI());
+        }
     }
 
     /**
@@ -142,6 +421,82 @@ public static File writePortObject(final ExecutionContext exec, final PortObject
         }
     }
 
+    /**
+     * Same as {@link #writePortObject(ExecutionContext, PortObject)}, but returns right away for tables, which are
+     * written in the background. The returned file can be read via {@link #openOutputResource(URI)} while it is being
+     * written, see {@link #isBeingWritten(File)}. Tables that cannot be written in the background, e.g., because of
+     * their column types, are written before this method returns.
+     *
+     * @param exec for writing the file, not used for tables written in the background
+     * @param portObject the object to serialize
+     * @return the file that contains (or will contain) the written {@link PortObject}
+     * @throws IOException when creating a temporary file or writing to it
+     * @throws CanceledExecutionException when being interrupted during writing to a file
+     */
+    public static File writePortObjectInBackground(final ExecutionContext exec, final PortObject portObject)
+        throws IOException, CanceledExecutionException {
+        if (portObject instanceof BufferedDataTable table && RowTableCodec.isSupported(table.getDataTableSpec())) {
+            // the node that called this method may finish before the table has been written
+            return StreamingTableTransfer.start(table, new ExecutionMonitor());
+        }
+        return writePortObject(exec, portObject);
+    }
+
+    /**
+     * @param file a file written by {@link #writePortObjectInBackground(ExecutionContext, PortObject)} or an input
+     *            resource of a callee workflow
+     * @return whether the file is still being written
+     */
+    public static boolean isBeingWritten(final File file) {
+        return StreamingTableTransfer.isBeingWritten(file);
+    }
+
+    /**
+     * Waits until a file written by {@link #writePortObjectInBackground(ExecutionContext, PortObject)} has been written
+     * completely. Returns right away for other files.
+     *
+     * @param file the file
+     * @throws IOException if writing the file failed or was canceled
+     */
+    public static void awaitWrite(final File file) throws IOException {
+        StreamingTableTransfer.await(file);
+    }
+
+    /**
+     * Declares that all output resources of the given callee workflow are read via {@link #openOutputResource(URI)},
+     * such that its Workflow Output nodes may provide tables that are still being written by
+     * {@link #writePortObjectInBackground(ExecutionContext, PortObject)}. The outputs of other workflows are written
+     * completely before the Workflow Output node finishes, since other readers, e.g., remote executors, cannot handle
+     * growing files.
+     *
+     * @param callee the callee workflow
+     * @see #isGrowingOutputAccepted()
+     */
+    public static void acceptGrowingOutputs(final WorkflowManager callee) {
+        GROWING_OUTPUT_READERS.add(callee);
+    }
+
+    /**
+     * @return whether the workflow of the node that is currently executed reads its output resources via
+     *         {@link #openOutputResource(URI)}, see {@link #acceptGrowingOutputs(WorkflowManager)}
+     */
+    public static boolean isGrowingOutputAccepted() {
+        final var context = NodeContext.getContext();
+        final var workflow = context == null ? null : context.getWorkflowManager();
+        return workflow != null && GROWING_OUTPUT_READERS.contains(workflow.getProjectWFM());
+    }
+
+    /**
+     * Stops writing a file written by {@link #writePortObjectInBackground(ExecutionContext, PortObject)}, if it is
+     * still being written, and waits until the write stopped. The file is deleted by the write. Afterwards the written
+     * table may be cleared.
+     *
+     * @param file the file
+     */
+    public static void cancelWrite(final File file) {
+        StreamingTableTransfer.cancel(file.toURI());
+    }
+
     /**
      * Writes a list of flow variables to a file.
      *
@@ -189,7 +544,13 @@ public static ExternalNodeData createExternalNodeData(final String parameterName
     }
 
     /**
-     * Writes a copy of the WorkflowPortObject and it's referenced reader data to file
+     * Writes a copy of the WorkflowPortObject and it's referenced reader data to file. If the workflow segment does not
+     * reference any data, the port object is written as is, without copying the segment first.
+     * <p>
+     * Skipping the copy is a partial step: segments with port object reference reader nodes are still copied via
+     * {@link WorkflowPortObject#transformAndCopy}, serialized, and copied again by the callee (see
+     * {@code PortObjectCallWorkflowPayload#onExecute}). Avoiding these copies would require writing the segment and its
+     * referenced data in one pass, which needs support from the segment serialization in knime-core.
      *
      * @param po <T> a {@link WorkflowPortObject}
      * @param exec an {@link ExecutionMonitor}
@@ -201,19 +562,36 @@ public static File writeWorkflowPortObjectAndReferencedData(final WorkflowPortOb
         final ExecutionMonitor exec) throws IOException, CanceledExecutionException {
 
         var segment = po.getSpec().getWorkflowSegment();
+        if (segment.getPortObjectReferenceReaderNodes().isEmpty()
+            && Objects.equals(segment.getName(), po.getSpec().getWorkflowName())) {
+            // nothing to add to the segment, the copy would be identical
+            return writeToTempFile(po, exec);
+        }
         var poCopy = po.transformAndCopy(wfm -> {
             var wfDir = wfm.getNodeContainerDirectory().getFile();
             var dataDir = new File(wfDir, "data");
             dataDir.mkdir();
             wfm.setName(po.getSpec().getWorkflowName());
             try {
-                ReferenceReaderDataUtil.writeReferenceReaderData(wfm, segment.getPortObjectReferenceReaderNodes(), dataDir, exec);
+                ReferenceReaderDataUtil.writeReferenceReaderData(wfm, segment.getPortObjectReferenceReaderNodes(),
+                    dataDir, exec);
             } catch (IOException | CanceledExecutionException | URISyntaxException | InvalidSettingsException ex) {
                 ExceptionUtils.rethrow(ex);
             }
         });
-        final var tmpFile = FileUtil.createTempFile("workflow-port-object", ".portobject", true);
-        PortUtil.writeObjectToFile(poCopy, tmpFile, exec);
+        return writeToTempFile(poCopy, exec);
+    }
+
+    private static File writeToTempFile(final WorkflowPortObject po, final ExecutionMonitor exec)
+        throws IOException, CanceledExecutionException {
+        final var tmpFile = CallWorkflowPayloadStore.createFile("workflow-port-object", ".portobject", -1);
+        try (var out = new BufferedOutputStream(CallWorkflowPayloadStore.newOutputStream(tmpFile))) {
+            PortUtil.writeObjectToStream(po, out, exec);
+        } catch (IOException | CanceledExecutionException | RuntimeException e) {
+            CallWorkflowPayloadStore.discard(tmpFile);
+            throw e;
+        }
+        CallWorkflowPayloadStore.written(tmpFile);
         return tmpFile;
     }
 
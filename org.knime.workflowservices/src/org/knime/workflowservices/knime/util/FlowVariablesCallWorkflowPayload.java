@@ -20,13 +20,24 @@
  */
 package org.knime.workflowservices.knime.util;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -44,7 +55,6 @@
 import org.knime.core.node.workflow.ICredentials;
 import org.knime.core.node.workflow.VariableType;
 import org.knime.core.node.workflow.virtual.AbstractPortObjectRepositoryNodeModel;
-import org.knime.core.util.FileUtil;
 import org.knime.workflowservices.json.row.caller.CallWorkflowNodeModel;
 
 /**
@@ -56,6 +66,21 @@ final class FlowVariablesCallWorkflowPayload implements CallWorkflowPayload {
     private static final String CFG_PLAIN_VARIABLES = "variables";
     private static final String CFG_PASSWORDS = "passwords";
 
+    /** Keys of the settings that hold a single variable of a type without dedicated binary representation. */
+    private static final String CFG_VARIABLE = "variable";
+    private static final String CFG_PASSWORD = "password";
+
+    /** Precedes flow variables in the binary format; XML payloads are written via {@link NodeSettings}. */
+    private static final byte[] BINARY_MAGIC = {'K', 'W', 'F', 'V'};
+    private static final int BINARY_VERSION = 1;
+
+    private static final byte TAG_STRING = 'S';
+    private static final byte TAG_INT = 'I';
+    private static final byte TAG_LONG = 'L';
+    private static final byte TAG_DOUBLE = 'D';
+    private static final byte TAG_BOOLEAN = 'B';
+    private static final byte TAG_SETTINGS = 'X';
+
     /** Passwords are stored in temp files before they are sent to the receiving side. Since these files live on disc
      * we do the best to obfuscate the content by (weakly) encrypting the password using this key. */
     private static final String WEAK_ENCRYPT_PASS = "1u4#/5c2";
@@ -88,8 +113,49 @@ public void close() throws IOException {
         // nothing to do here
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The file written for unchanged flow variables is reused by the caller, hence the callee doesn't need to parse it
+     * again.
+     */
+    @Override
+    public boolean isReusable() {
+        return true;
+    }
+
+    /**
+     * Reads flow variables in the XML format or, if written with
+     * {@link CallWorkflowUtil#PROPERTY_FLOW_VARIABLE_PAYLOAD_FORMAT} set to <code>BINARY</code>, in the binary format.
+     */
     static final FlowVariablesCallWorkflowPayload createFrom(final InputStream stream)
         throws IOException, InvalidSettingsException {
+        final var in = stream.markSupported() ? stream : new BufferedInputStream(stream);
+        in.mark(BINARY_MAGIC.length);
+        final List<FlowVariable> flowVariables;
+        if (Arrays.equals(in.readNBytes(BINARY_MAGIC.length), BINARY_MAGIC)) {
+            flowVariables = readBinary(new DataInputStream(in));
+        } else {
+            in.reset();
+            flowVariables = readXML(in);
+        }
+        return createFrom(flowVariables);
+    }
+
+    /**
+     * @param flowVariables the flow variables in the order in which they are written, see
+     *            {@link #getSendableFlowVariables(Collection)}
+     * @return the payload for the flow variables
+     */
+    static final FlowVariablesCallWorkflowPayload createFrom(final List<FlowVariable> flowVariables) {
+        final List<FlowVariable> list = new ArrayList<>(flowVariables);
+        // when retrieving flow variables via NodeModel#getAvailableFlowVariables it returns top of stack first (even
+        // though it is a map). Reverse to insert top of stack last.
+        Collections.reverse(list);
+        return new FlowVariablesCallWorkflowPayload(Collections.unmodifiableList(list));
+    }
+
+    private static List<FlowVariable> readXML(final InputStream stream) throws IOException, InvalidSettingsException {
         List<FlowVariable> flowVariables = new ArrayList<>();
         var variablesParentSettings = NodeSettings.loadFromXML(stream);
         var variablesSettings = variablesParentSettings.getNodeSettings(CFG_PLAIN_VARIABLES);
@@ -97,18 +163,54 @@ static final FlowVariablesCallWorkflowPayload createFrom(final InputStream strea
         for (String key : variablesSettings.keySet()) {
             var flowVar = FlowVariable.load(variablesSettings.getNodeSettings(key));
             if (flowVar.getVariableType().equals(VariableType.CredentialsType.INSTANCE)) {
-                ICredentials credVar = flowVar.getValue(VariableType.CredentialsType.INSTANCE);
-                var password = passwordSettings.getPassword(flowVar.getName(), WEAK_ENCRYPT_PASS);
-                flowVar = CredentialsStore.newCredentialsFlowVariable(credVar.getName(), credVar.getLogin(), password,
-                    false, false);
+                flowVar =
+                    restoreCredentials(flowVar, passwordSettings.getPassword(flowVar.getName(), WEAK_ENCRYPT_PASS));
             }
             flowVariables.add(flowVar);
         }
+        return flowVariables;
+    }
 
-        // when retrieving flow variables via NodeModel#getAvailableFlowVariables it returns top of stack first (even
-        // though it is a map). Reverse to insert top of stack last.
-        Collections.reverse(flowVariables);
-        return new FlowVariablesCallWorkflowPayload(Collections.unmodifiableList(flowVariables));
+    private static FlowVariable restoreCredentials(final FlowVariable flowVar, final String password) {
+        ICredentials credVar = flowVar.getValue(VariableType.CredentialsType.INSTANCE);
+        return CredentialsStore.newCredentialsFlowVariable(credVar.getName(), credVar.getLogin(), password, false,
+            false);
+    }
+
+    private static List<FlowVariable> readBinary(final DataInputStream in)
+        throws IOException, InvalidSettingsException {
+        final var version = in.readUnsignedByte();
+        if (version != BINARY_VERSION) {
+            throw new IOException("Unsupported flow variable format version " + version
+                + ", the flow variables have been written by a newer version");
+        }
+        final var count = in.readInt();
+        final List<FlowVariable> flowVariables = new ArrayList<>(count);
+        for (var i = 0; i < count; i++) {
+            final var tag = in.readByte();
+            final var name = readString(in);
+            flowVariables.add(switch (tag) {
+                case TAG_STRING -> new FlowVariable(name, VariableType.StringType.INSTANCE, readString(in));
+                case TAG_INT -> new FlowVariable(name, VariableType.IntType.INSTANCE, in.readInt());
+                case TAG_LONG -> new FlowVariable(name, VariableType.LongType.INSTANCE, in.readLong());
+                case TAG_DOUBLE -> new FlowVariable(name, VariableType.DoubleType.INSTANCE, in.readDouble());
+                case TAG_BOOLEAN -> new FlowVariable(name, VariableType.BooleanType.INSTANCE, in.readBoolean());
+                case TAG_SETTINGS -> readSettings(in);
+                default -> throw new IOException("Corrupt flow variable payload, unknown value tag " + tag);
+            });
+        }
+        return flowVariables;
+    }
+
+    private static FlowVariable readSettings(final DataInputStream in) throws IOException, InvalidSettingsException {
+        final var bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        final var settings = NodeSettings.loadFromXML(new ByteArrayInputStream(bytes));
+        final var flowVar = FlowVariable.load(settings.getNodeSettings(CFG_VARIABLE));
+        if (flowVar.getVariableType().equals(VariableType.CredentialsType.INSTANCE)) {
+            return restoreCredentials(flowVar, settings.getPassword(CFG_PASSWORD, WEAK_ENCRYPT_PASS));
+        }
+        return flowVar;
     }
 
     /**
@@ -123,26 +225,103 @@ private static boolean isSendableFlowVariable(final FlowVariable variable) {
     }
 
     /**
-     * Implementation of {@link CallWorkflowUtil#writeFlowVariables(Collection)}.
+     * @param flowVariables the flow variables available to the caller
+     * @return the flow variables that are sent to the callee workflow
      */
-    static File writeFlowVariables(final Collection<FlowVariable> flowVariables) throws IOException {
-        List<FlowVariable> list = flowVariables.stream()//
+    static List<FlowVariable> getSendableFlowVariables(final Collection<FlowVariable> flowVariables) {
+        return flowVariables.stream()//
             .filter(FlowVariablesCallWorkflowPayload::isSendableFlowVariable)//
             .collect(Collectors.toList());
+    }
+
+    /**
+     * Fingerprint of the flow variables written by {@link #writeFlowVariables(Collection)}: two fingerprints are equal
+     * if and only if the same file content would be written, such that the file can be reused. The fingerprint is a
+     * SHA-256 digest over name, type and value of the flow variables, such that credentials are not kept in plain text
+     * as cache keys.
+     *
+     * @param flowVariables the flow variables available to the caller
+     * @return the hex encoded digest
+     */
+    static String fingerprint(final Collection<FlowVariable> flowVariables) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available: " + e.getMessage(), e);
+        }
+        update(digest, System.getProperty(CallWorkflowUtil.PROPERTY_FLOW_VARIABLE_PAYLOAD_FORMAT));
+        final var weakPasswordsProperty = KNIMEConstants.PROPERTY_WEAK_PASSWORDS_IN_SETTINGS_FORBIDDEN;
+        update(digest, Boolean.toString(Boolean.getBoolean(weakPasswordsProperty)));
+        for (FlowVariable flowVariable : getSendableFlowVariables(flowVariables)) {
+            final var type = flowVariable.getVariableType();
+            update(digest, flowVariable.getName());
+            update(digest, type.getIdentifier());
+            if (type.equals(VariableType.CredentialsType.INSTANCE)) {
+                ICredentials c = flowVariable.getValue(VariableType.CredentialsType.INSTANCE);
+                update(digest, c.getName());
+                update(digest, c.getLogin());
+                update(digest, c.getPassword());
+            } else {
+                update(digest, flowVariable.getValueAsString());
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /** Adds the length prefixed string to the digest, such that adjacent strings can't be confused. */
+    private static void update(final MessageDigest digest, final String value) {
+        if (value == null) {
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(-1).array());
+        } else {
+            final var bytes = value.getBytes(StandardCharsets.UTF_8);
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+            digest.update(bytes);
+        }
+    }
 
+    /**
+     * Implementation of {@link CallWorkflowUtil#writeFlowVariables(Collection)}.
+     */
+    static File writeFlowVariables(final Collection<FlowVariable> flowVariables) throws IOException {
         // flow variable port objects don't contain information, they just serve as a means to connect nodes
-        // take the flow variables from the workflow manager's stack and write them to XML via NodeSettings
+        // take the flow variables from the workflow manager's stack and write them to a file
+        List<FlowVariable> list = getSendableFlowVariables(flowVariables).stream()//
+            .filter(v -> !v.getVariableType().equals(VariableType.CredentialsType.INSTANCE)
+                || !Boolean.getBoolean(KNIMEConstants.PROPERTY_WEAK_PASSWORDS_IN_SETTINGS_FORBIDDEN))//
+            .collect(Collectors.toList());
+
+        if ("BINARY".equalsIgnoreCase(System.getProperty(CallWorkflowUtil.PROPERTY_FLOW_VARIABLE_PAYLOAD_FORMAT))) {
+            // flow variables are small, they are written to the scratch directory if there is one
+            var tempFile = CallWorkflowPayloadStore.createFile("external-node-flow-variables-", ".bin", 0);
+            try (var out =
+                new DataOutputStream(new BufferedOutputStream(CallWorkflowPayloadStore.newOutputStream(tempFile)))) {
+                writeBinary(list, out);
+            } catch (IOException | RuntimeException e) {
+                CallWorkflowPayloadStore.discard(tempFile);
+                throw e;
+            }
+            CallWorkflowPayloadStore.written(tempFile);
+            return tempFile;
+        }
+        // the XML format is the default, it can be read by callee workflows running on older versions
+        var tempFile = CallWorkflowPayloadStore.createFile("external-node-flow-variables-", ".xml", 0);
+        try (var out = CallWorkflowPayloadStore.newOutputStream(tempFile)) {
+            writeXML(list).saveToXML(out);
+        } catch (IOException | RuntimeException e) {
+            CallWorkflowPayloadStore.discard(tempFile);
+            throw e;
+        }
+        CallWorkflowPayloadStore.written(tempFile);
+        return tempFile;
+    }
+
+    private static NodeSettings writeXML(final List<FlowVariable> list) {
         var variables = new NodeSettings("flow-variables");
         var variablesSettings = variables.addNodeSettings(FlowVariablesCallWorkflowPayload.CFG_PLAIN_VARIABLES);
         var passwordSettings = variables.addNodeSettings(FlowVariablesCallWorkflowPayload.CFG_PASSWORDS);
         for (var i = 0; i < list.size(); i++) {
             var flowVariable = list.get(i);
-
-            if (flowVariable.getVariableType().equals(VariableType.CredentialsType.INSTANCE)
-                && Boolean.getBoolean(KNIMEConstants.PROPERTY_WEAK_PASSWORDS_IN_SETTINGS_FORBIDDEN)) {
-                continue;
-            }
-
             String key = "Var_" + i;
             flowVariable.save(variablesSettings.addNodeSettings(key));
 
@@ -152,11 +331,68 @@ static File writeFlowVariables(final Collection<FlowVariable> flowVariables) thr
                     c.getPassword());
             }
         }
-        var tempFile = FileUtil.createTempFile("external-node-flow-variables-", ".xml", false);
-        try (var out = new FileOutputStream(tempFile)) {
-            variables.saveToXML(out);
+        return variables;
+    }
+
+    /**
+     * Writes the binary format: a header (magic and version), the number of variables, and per variable a tag, the
+     * name, and the value. Values of types other than string, int, long, double, and boolean are written as XML via
+     * {@link FlowVariable#save(org.knime.core.node.NodeSettingsWO)}.
+     */
+    private static void writeBinary(final List<FlowVariable> list, final DataOutputStream out) throws IOException {
+        out.write(BINARY_MAGIC);
+        out.writeByte(BINARY_VERSION);
+        out.writeInt(list.size());
+        for (FlowVariable flowVariable : list) {
+            final var type = flowVariable.getVariableType();
+            if (type.equals(VariableType.StringType.INSTANCE)) {
+                writeHeader(out, TAG_STRING, flowVariable);
+                writeString(out, flowVariable.getValue(VariableType.StringType.INSTANCE));
+            } else if (type.equals(VariableType.IntType.INSTANCE)) {
+                writeHeader(out, TAG_INT, flowVariable);
+                out.writeInt(flowVariable.getValue(VariableType.IntType.INSTANCE));
+            } else if (type.equals(VariableType.LongType.INSTANCE)) {
+                writeHeader(out, TAG_LONG, flowVariable);
+                out.writeLong(flowVariable.getValue(VariableType.LongType.INSTANCE));
+            } else if (type.equals(VariableType.DoubleType.INSTANCE)) {
+                writeHeader(out, TAG_DOUBLE, flowVariable);
+                out.writeDouble(flowVariable.getValue(VariableType.DoubleType.INSTANCE));
+            } else if (type.equals(VariableType.BooleanType.INSTANCE)) {
+                writeHeader(out, TAG_BOOLEAN, flowVariable);
+                out.writeBoolean(flowVariable.getValue(VariableType.BooleanType.INSTANCE));
+            } else {
+                writeHeader(out, TAG_SETTINGS, flowVariable);
+                final var settings = new NodeSettings("flow-variable");
+                flowVariable.save(settings.addNodeSettings(CFG_VARIABLE));
+                if (type.equals(VariableType.CredentialsType.INSTANCE)) {
+                    ICredentials c = flowVariable.getValue(VariableType.CredentialsType.INSTANCE);
+                    settings.addPassword(CFG_PASSWORD, WEAK_ENCRYPT_PASS, c.getPassword());
+                }
+                final var bytes = new ByteArrayOutputStream();
+                settings.saveToXML(bytes);
+                out.writeInt(bytes.size());
+                bytes.writeTo(out);
+            }
         }
-        return tempFile;
+    }
+
+    private static void writeHeader(final DataOutputStream out, final byte tag, final FlowVariable flowVariable)
+        throws IOException {
+        out.writeByte(tag);
+        writeString(out, flowVariable.getName());
+    }
+
+    /** {@link DataOutputStream#writeUTF(String)} is limited to 64k bytes, hence the length is written as int. */
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        final var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final var bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
     }
 
 }
@@ -0,0 +1,152 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.workflowservices.knime.util;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.dialog.ExternalNodeData;
+import org.knime.core.node.workflow.FlowVariable;
+
+/**
+ * Hands tables and flow variables from a caller to a callee workflow that runs in the same JVM without writing them
+ * to a file. The caller registers the data and passes the returned URI as resource of the {@link ExternalNodeData};
+ * the Workflow Input node in the callee looks the data up and provides it as its output. Tables are copied into the
+ * callee, such that the callee's output doesn't refer to data owned by the caller workflow.
+ *
+ * The caller must keep the data alive while the callee workflow is executed and {@link #unregister(Collection)
+ * unregister} it afterwards, e.g., via {@link CallWorkflowUtil#releaseWorkflowInput(Map)}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class InProcessHandoff {
+
+    private static final String SCHEME = "knime-in-process";
+
+    private static final Map<URI, Object> DATA = new ConcurrentHashMap<>();
+
+    private InProcessHandoff() {
+    }
+
+    /**
+     * @param table the table to hand over to a callee workflow
+     * @return the URI under which the callee workflow finds the table
+     */
+    public static URI register(final BufferedDataTable table) {
+        return register("tables", table);
+    }
+
+    /**
+     * @param flowVariables the flow variables to hand over to a callee workflow, in the order in which they would be
+     *            written by {@link CallWorkflowUtil#writeFlowVariables(Collection)}
+     * @return the URI under which the callee workflow finds the flow variables
+     */
+    public static URI registerFlowVariables(final List<FlowVariable> flowVariables) {
+        return register("flow-variables", List.copyOf(flowVariables));
+    }
+
+    private static URI register(final String kind, final Object data) {
+        final var uri = URI.create(SCHEME + ":/" + kind + "/" + UUID.randomUUID());
+        DATA.put(uri, data);
+        return uri;
+    }
+
+    /**
+     * @param resource the resource of an {@link ExternalNodeData}
+     * @return the table registered under the given URI, empty if the resource does not refer to a handed over table
+     */
+    public static Optional<BufferedDataTable> lookup(final URI resource) {
+        return lookup(resource, BufferedDataTable.class);
+    }
+
+    /**
+     * @param resource the resource of an {@link ExternalNodeData}
+     * @return the flow variables registered under the given URI, empty if the resource does not refer to handed over
+     *         flow variables
+     */
+    @SuppressWarnings("unchecked")
+    public static Optional<List<FlowVariable>> lookupFlowVariables(final URI resource) {
+        return lookup(resource, List.class).map(l -> (List<FlowVariable>)l);
+    }
+
+    private static <T> Optional<T> lookup(final URI resource, final Class<T> type) {
+        if (!isInProcess(resource)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(DATA.get(resource)).filter(type::isInstance).map(type::cast);
+    }
+
+    /**
+     * @param resource the resource of an {@link ExternalNodeData}
+     * @return whether the resource refers to data handed over in-process
+     */
+    public static boolean isInProcess(final URI resource) {
+        return resource != null && SCHEME.equals(resource.getScheme());
+    }
+
+    /**
+     * @param resource a URI returned by one of the register methods
+     */
+    public static void unregister(final URI resource) {
+        DATA.remove(resource);
+    }
+
+    /**
+     * Removes the data handed over with the given workflow input, other input data is ignored.
+     *
+     * @param workflowInput the input of a callee workflow
+     */
+    public static void unregister(final Collection<ExternalNodeData> workflowInput) {
+        workflowInput.stream().map(ExternalNodeData::getResource).filter(InProcessHandoff::isInProcess)
+            .forEach(InProcessHandoff::unregister);
+    }
+}
@@ -20,6 +20,7 @@
  */
 package org.knime.workflowservices.knime.util;
 
+import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
@@ -38,7 +39,6 @@
 import org.knime.core.node.workflow.capture.ReferenceReaderDataUtil;
 import org.knime.core.node.workflow.capture.WorkflowPortObject;
 import org.knime.core.node.workflow.virtual.AbstractPortObjectRepositoryNodeModel;
-import org.knime.core.util.FileUtil;
 
 /**
  *
@@ -68,6 +68,12 @@ public PortObject onExecute(final ExecutionContext exec, final Consumer<FlowVari
                     "A special kind of node model must be given if workflow port object is part of the payload. Most likely an implementation error.");
             }
             var workflowPortObject = (WorkflowPortObject)m_portObject;
+            if (workflowPortObject.getSpec().getWorkflowSegment().getPortObjectReferenceReaderNodes().isEmpty()) {
+                // no referenced data to copy into the repository, the port object read from the payload is adopted;
+                // segments with reference readers are still copied, see
+                // CallWorkflowUtil#writeWorkflowPortObjectAndReferencedData
+                return workflowPortObject;
+            }
             return workflowPortObject.transformAndCopy(wfm -> {
                 try {
                     ReferenceReaderDataUtil.copyReferenceReaderData(wfm, exec, portObjRepoNodeModel);
@@ -98,13 +104,29 @@ static final PortObjectCallWorkflowPayload createFrom(final InputStream input)
         }
     }
 
+    static final PortObjectCallWorkflowPayload createFrom(final File file)
+        throws IOException, InvalidSettingsException {
+        try {
+            return new PortObjectCallWorkflowPayload(PortUtil.readObjectFromFile(file, new ExecutionMonitor()));
+        } catch (CanceledExecutionException e) {
+            throw new InvalidSettingsException("Reading port object canceled", e);
+        }
+    }
+
     /**
      * Implementation of {@link CallWorkflowUtil#writePortObject(ExecutionContext, PortObject)} for non-table ports.
      */
     static File writePortObject(final ExecutionContext exec, final PortObject portObject)
         throws IOException, CanceledExecutionException {
-        var tempFile = FileUtil.createTempFile("external-node-input-", ".portobject", false);
-        PortUtil.writeObjectToFile(portObject, tempFile, exec);
+        var tempFile = CallWorkflowPayloadStore.createFile("external-node-input-", ".portobject", -1);
+        try (var out = new BufferedOutputStream(CallWorkflowPayloadStore.newOutputStream(tempFile))) {
+            PortUtil.writeObjectToStream(portObject, out, exec);
+        } catch (IOException | CanceledExecutionException | RuntimeException e) {
+            // do not leave partially written port objects behind
+            CallWorkflowPayloadStore.discard(tempFile);
+            throw e;
+        }
+        CallWorkflowPayloadStore.written(tempFile);
         return tempFile;
     }
 
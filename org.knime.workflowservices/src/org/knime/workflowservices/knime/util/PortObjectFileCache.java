@@ -0,0 +1,159 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.workflowservices.knime.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.workflow.FlowVariable;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+
+/**
+ * Reuses the files written for input port objects of callee workflows, e.g., when a model or lookup table is passed
+ * to the callee in every iteration of a loop. Port objects are immutable, so the file written for a port object can be
+ * reused as long as the very same port object instance is passed; the cache holds its keys weakly and compares them by
+ * identity. Likewise, the file written for flow variables is reused as long as the sendable flow variables are
+ * unchanged, see {@link FlowVariablesCallWorkflowPayload#fingerprint(java.util.Collection)}.
+ *
+ * The cache holds one {@link CallWorkflowPayloadStore reference} to each file, each caller that
+ * {@link #acquire(PortObject, Writer) acquired} the file holds another one until it
+ * {@link CallWorkflowPayloadStore#release(java.net.URI) releases} it. The file is deleted once the entry has been
+ * evicted from the cache and all callers released it.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class PortObjectFileCache {
+
+    /** Writes a port object to a file. */
+    @FunctionalInterface
+    interface Writer {
+        File write() throws IOException, CanceledExecutionException;
+    }
+
+    private static final Cache<PortObject, File> CACHE = CacheBuilder.newBuilder() //
+        .weakKeys() //
+        .maximumSize(64) //
+        .expireAfterAccess(5, TimeUnit.MINUTES) //
+        .removalListener((final RemovalNotification<PortObject, File> n) -> release(n.getValue())) //
+        .build();
+
+    /** Keyed by the fingerprint of the flow variables, see class comment. */
+    private static final Cache<String, File> FLOW_VARIABLES_CACHE = CacheBuilder.newBuilder() //
+        .maximumSize(16) //
+        .expireAfterAccess(5, TimeUnit.MINUTES) //
+        .removalListener((final RemovalNotification<String, File> n) -> release(n.getValue())) //
+        .build();
+
+    private PortObjectFileCache() {
+    }
+
+    /**
+     * Returns the file previously written for the given port object or writes it. Each call must be followed by a
+     * call to {@link CallWorkflowPayloadStore#release(java.net.URI)} once the callee workflow has read the file.
+     *
+     * @param portObject the port object
+     * @param writer writes the port object if there is no file for it yet
+     * @return the file that contains the port object
+     * @throws IOException if writing the port object failed
+     * @throws CanceledExecutionException if writing the port object was canceled
+     */
+    static File acquire(final PortObject portObject, final Writer writer)
+        throws IOException, CanceledExecutionException {
+        return acquire(CACHE, portObject, writer);
+    }
+
+    /**
+     * Returns the file previously written for equal flow variables or writes it. Each call must be followed by a call
+     * to {@link CallWorkflowPayloadStore#release(java.net.URI)} once the callee workflow has read the file.
+     *
+     * @param flowVariables the flow variables available to the caller
+     * @param writer writes the flow variables if there is no file for them yet
+     * @return the file that contains the flow variables
+     * @throws IOException if writing the flow variables failed
+     * @throws CanceledExecutionException if writing the flow variables was canceled
+     */
+    static File acquireFlowVariables(final Collection<FlowVariable> flowVariables, final Writer writer)
+        throws IOException, CanceledExecutionException {
+        return acquire(FLOW_VARIABLES_CACHE, FlowVariablesCallWorkflowPayload.fingerprint(flowVariables), writer);
+    }
+
+    private static <K> File acquire(final Cache<K, File> cache, final K key, final Writer writer)
+        throws IOException, CanceledExecutionException {
+        cache.cleanUp();
+        while (true) {
+            final File file;
+            try {
+                file = cache.get(key, writer::write);
+            } catch (ExecutionException e) {
+                final var cause = e.getCause();
+                if (cause instanceof IOException ioe) {
+                    throw ioe;
+                } else if (cause instanceof CanceledExecutionException cee) {
+                    throw cee;
+                }
+                throw new IOException(cause.getMessage(), cause);
+            }
+            if (CallWorkflowPayloadStore.retain(file.toURI())) {
+                return file;
+            }
+            // evicted and deleted concurrently, write it again
+            cache.asMap().remove(key, file);
+        }
+    }
+
+    /** Gives up the reference held by the cache. */
+    private static void release(final File file) {
+        CallWorkflowPayloadStore.release(file.toURI());
+    }
+}
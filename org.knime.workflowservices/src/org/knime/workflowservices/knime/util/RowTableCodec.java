@@ -0,0 +1,292 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.workflowservices.knime.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.knime.core.data.BooleanValue;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTable;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.IntValue;
+import org.knime.core.data.LongValue;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.StringValue;
+import org.knime.core.data.container.ContainerTable;
+import org.knime.core.data.container.DataContainer;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.ModelContent;
+
+/**
+ * Writes and reads tables row by row for the {@link TablePayloadFormat#STORED} and {@link TablePayloadFormat#FAST}
+ * formats. The table spec is written in full, including domains and properties; the cells are written as plain values
+ * without per-cell serializers. Hence only tables whose columns are strings, integers, longs, doubles, or booleans are
+ * supported, see {@link #isSupported(DataTableSpec)}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class RowTableCodec {
+
+    private static final String CFG_SPEC = "spec";
+
+    private static final byte STRING = 'S';
+
+    private static final byte INT = 'I';
+
+    private static final byte LONG = 'L';
+
+    private static final byte DOUBLE = 'D';
+
+    private static final byte BOOLEAN = 'B';
+
+    /** Precedes each row, the end of the table is marked with {@link #END_OF_TABLE}. */
+    private static final byte ROW = 1;
+
+    private static final byte END_OF_TABLE = 0;
+
+    private RowTableCodec() {
+    }
+
+    /**
+     * @param spec the spec of a table
+     * @return whether the table can be written by this codec
+     */
+    static boolean isSupported(final DataTableSpec spec) {
+        return spec.stream().allMatch(column -> toCode(column.getType()) != 0);
+    }
+
+    private static byte toCode(final DataType type) {
+        if (StringCell.TYPE.equals(type)) {
+            return STRING;
+        } else if (IntCell.TYPE.equals(type)) {
+            return INT;
+        } else if (LongCell.TYPE.equals(type)) {
+            return LONG;
+        } else if (DoubleCell.TYPE.equals(type)) {
+            return DOUBLE;
+        } else if (BooleanCell.TYPE.equals(type)) {
+            return BOOLEAN;
+        }
+        return 0;
+    }
+
+    /**
+     * @param table the table to write, must be {@link #isSupported(DataTableSpec) supported}
+     * @param rowCount the number of rows of the table, for progress reporting
+     * @param out the stream to write to
+     * @param exec for progress reporting and cancellation
+     * @throws IOException if writing to the stream fails
+     * @throws CanceledExecutionException if the execution was canceled
+     */
+    static void write(final DataTable table, final long rowCount, final DataOutputStream out,
+        final ExecutionMonitor exec) throws IOException, CanceledExecutionException {
+        write(table, rowCount, 0, out, exec);
+    }
+
+    /**
+     * Same as {@link #write(DataTable, long, DataOutputStream, ExecutionMonitor)}, but flushes the stream after the
+     * spec and after each chunk of rows, such that a reader can process them while the rest of the table is written.
+     *
+     * @param table the table to write, must be {@link #isSupported(DataTableSpec) supported}
+     * @param rowCount the number of rows of the table, for progress reporting
+     * @param rowsPerChunk the number of rows after which the stream is flushed, 0 to not flush
+     * @param out the stream to write to
+     * @param exec for progress reporting and cancellation
+     * @throws IOException if writing to the stream fails
+     * @throws CanceledExecutionException if the execution was canceled
+     */
+    static void write(final DataTable table, final long rowCount, final int rowsPerChunk, final DataOutputStream out,
+        final ExecutionMonitor exec) throws IOException, CanceledExecutionException {
+        final var spec = table.getDataTableSpec();
+        final var specContent = new ModelContent(CFG_SPEC);
+        spec.save(specContent);
+        final var specBytes = new ByteArrayOutputStream();
+        specContent.saveToXML(specBytes);
+        out.writeInt(specBytes.size());
+        specBytes.writeTo(out);
+        if (rowsPerChunk > 0) {
+            out.flush();
+        }
+
+        final var codes = new byte[spec.getNumColumns()];
+        for (var i = 0; i < codes.length; i++) {
+            codes[i] = toCode(spec.getColumnSpec(i).getType());
+        }
+        long rowIndex = 0;
+        for (DataRow row : table) {
+            exec.checkCanceled();
+            out.writeByte(ROW);
+            writeString(out, row.getKey().getString());
+            for (var i = 0; i < codes.length; i++) {
+                writeCell(out, codes[i], row.getCell(i));
+            }
+            rowIndex++;
+            if (rowCount > 0) {
+                exec.setProgress(rowIndex / (double)rowCount);
+            }
+            if (rowsPerChunk > 0 && rowIndex % rowsPerChunk == 0) {
+                out.flush();
+            }
+        }
+        out.writeByte(END_OF_TABLE);
+        if (rowsPerChunk > 0) {
+            out.flush();
+        }
+    }
+
+    private static void writeCell(final DataOutputStream out, final byte code, final DataCell cell)
+        throws IOException {
+        if (cell.isMissing()) {
+            out.writeBoolean(false);
+            return;
+        }
+        out.writeBoolean(true);
+        switch (code) {
+            case STRING -> writeString(out, ((StringValue)cell).getStringValue());
+            case INT -> out.writeInt(((IntValue)cell).getIntValue());
+            case LONG -> out.writeLong(((LongValue)cell).getLongValue());
+            case DOUBLE -> out.writeDouble(((DoubleValue)cell).getDoubleValue());
+            case BOOLEAN -> out.writeBoolean(((BooleanValue)cell).getBooleanValue());
+            default -> throw new IllegalStateException("Unsupported column type code " + code);
+        }
+    }
+
+    /**
+     * @param in the stream to read from, as written by
+     *            {@link #write(DataTable, long, DataOutputStream, ExecutionMonitor)}
+     * @return the table read from the stream
+     * @throws IOException if reading from the stream fails or its content is corrupt
+     */
+    static ContainerTable read(final DataInputStream in) throws IOException {
+        final var spec = readSpec(in);
+        if (!isSupported(spec)) {
+            throw new IOException("Unsupported column types in table spec");
+        }
+
+        final var codes = new byte[spec.getNumColumns()];
+        for (var i = 0; i < codes.length; i++) {
+            codes[i] = toCode(spec.getColumnSpec(i).getType());
+        }
+        final var container = new DataContainer(spec);
+        try {
+            for (var marker = in.readByte(); marker != END_OF_TABLE; marker = in.readByte()) {
+                if (marker != ROW) {
+                    throw new IOException("Corrupt table payload, unexpected row marker " + marker);
+                }
+                final var key = new RowKey(readString(in));
+                final var cells = new DataCell[codes.length];
+                for (var i = 0; i < codes.length; i++) {
+                    cells[i] = readCell(in, codes[i]);
+                }
+                container.addRowToTable(new DefaultRow(key, cells));
+            }
+        } finally {
+            container.close();
+        }
+        return (ContainerTable)container.getTable();
+    }
+
+    /**
+     * Reads only the spec that precedes the rows.
+     *
+     * @param in the stream to read from, as written by
+     *            {@link #write(DataTable, long, DataOutputStream, ExecutionMonitor)}
+     * @return the spec of the table
+     * @throws IOException if reading from the stream fails or its content is corrupt
+     */
+    static DataTableSpec readSpec(final DataInputStream in) throws IOException {
+        final var specBytes = new byte[in.readInt()];
+        in.readFully(specBytes);
+        try {
+            return DataTableSpec.load(ModelContent.loadFromXML(new ByteArrayInputStream(specBytes)));
+        } catch (InvalidSettingsException e) {
+            throw new IOException("Could not read the table spec: " + e.getMessage(), e);
+        }
+    }
+
+    private static DataCell readCell(final DataInputStream in, final byte code) throws IOException {
+        if (!in.readBoolean()) {
+            return DataType.getMissingCell();
+        }
+        return switch (code) {
+            case STRING -> new StringCell(readString(in));
+            case INT -> new IntCell(in.readInt());
+            case LONG -> new LongCell(in.readLong());
+            case DOUBLE -> new DoubleCell(in.readDouble());
+            case BOOLEAN -> BooleanCell.get(in.readBoolean());
+            default -> throw new IllegalStateException("Unsupported column type code " + code);
+        };
+    }
+
+    /** {@link DataOutputStream#writeUTF(String)} is limited to 64k bytes, hence the length is written as int. */
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        final var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final var bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.workflowservices.knime.util;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.ThreadUtils;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Writes input tables for callee workflows in the background, such that the callee (or the upload to a remote
+ * executor) can start reading the table while later rows are still being written. Likewise, the Workflow Output node
+ * of a callee writes its table in the background, such that the caller can start reading it right away. The rows are
+ * written in the {@link TablePayloadFormat#STORED} format in chunks of {@value #ROWS_PER_CHUNK} rows; each chunk is
+ * flushed to the file as soon as it is complete.
+ *
+ * While a table is being written, a marker file next to it (with suffix {@value #PARTIAL_SUFFIX}) exists. Readers use
+ * {@link #open(File)}, which waits for more data at the end of the file until the marker has been removed. If writing
+ * fails, the marker is removed, the file is deleted, and the reader fails on the incomplete table.
+ *
+ * The writes run on threads of their own rather than in the
+ * {@link org.knime.core.node.KNIMEConstants#GLOBAL_THREAD_POOL global thread pool}: the readers wait for the writes, so
+ * a write must not wait for a busy pool. The table must stay valid until the write finished; {@link #cancel(URI)}
+ * therefore waits until the write stopped.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class StreamingTableTransfer {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(StreamingTableTransfer.class);
+
+    private static final String PARTIAL_SUFFIX = ".partial";
+
+    private static final int ROWS_PER_CHUNK = 1024;
+
+    private static final long POLL_INTERVAL_MILLIS = 10;
+
+    /** Readers fail if the file has not grown for this long while it is still marked as being written. */
+    private static final long STALL_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /** The writes that have not finished yet. */
+    private static final Map<URI, Write> WRITES = new ConcurrentHashMap<>();
+
+    private static final ExecutorService WRITERS = Executors.newCachedThreadPool(r -> {
+        final var thread = new Thread(r, "KNIME-Workflow-Table-Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private StreamingTableTransfer() {
+    }
+
+    /**
+     * Starts writing the table in the background.
+     *
+     * @param table the table to write, must be supported by the {@link RowTableCodec}
+     * @param exec for progress reporting
+     * @return the file the table is written to, it is marked as being written until the write finished
+     * @throws IOException if the file cannot be created
+     */
+    static File start(final BufferedDataTable table, final ExecutionMonitor exec) throws IOException {
+        final var file = CallWorkflowPayloadStore.createFile("external-node-input-", ".table",
+            TableCallWorkflowPayload.estimateSize(table));
+        final var marker = getMarker(file);
+        if (!marker.createNewFile()) {
+            CallWorkflowPayloadStore.discard(file);
+            throw new IOException("Could not create marker file " + marker);
+        }
+        final var write = new Write(file, table, exec);
+        // registered before it runs, such that it is unregistered only once it finished
+        WRITES.put(file.toURI(), write);
+        WRITERS.execute(ThreadUtils.runnableWithContext(write));
+        return file;
+    }
+
+    /**
+     * Waits until the table has been written completely.
+     *
+     * @param file a file returned by {@link #start(BufferedDataTable, ExecutionMonitor)}
+     * @throws IOException if writing the table failed or was canceled
+     */
+    static void await(final File file) throws IOException {
+        final var write = WRITES.get(file.toURI());
+        if (write != null) {
+            try {
+                write.m_finished.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for table to be written");
+            }
+        }
+        if (!file.exists()) {
+            throw new IOException("Writing table to " + file + " failed or was canceled");
+        }
+    }
+
+    /**
+     * Stops writing the table to the given resource, if it is still being written, and waits until the write stopped
+     * and deleted the file. Afterwards the table may be cleared. Other resources are ignored.
+     *
+     * @param resource the URI of a file returned by {@link #start(BufferedDataTable, ExecutionMonitor)}
+     */
+    static void cancel(final URI resource) {
+        final var write = WRITES.get(resource);
+        if (write != null) {
+            write.cancel();
+        }
+    }
+
+    /**
+     * @param file a file
+     * @return whether the file is still being written by {@link #start(BufferedDataTable, ExecutionMonitor)}
+     */
+    static boolean isBeingWritten(final File file) {
+        return getMarker(file).exists();
+    }
+
+    /**
+     * Opens a file for reading. If the file is still being written, the returned stream waits for more data at the end
+     * of the file until the write has finished.
+     *
+     * @param file the file to read
+     * @return a stream of the file's content
+     * @throws IOException if the file cannot be opened
+     */
+    @SuppressWarnings("resource")
+    static InputStream open(final File file) throws IOException {
+        final var marker = getMarker(file);
+        if (!marker.exists()) {
+            return new FileInputStream(file);
+        }
+        return new GrowingFileInputStream(new FileInputStream(file), marker);
+    }
+
+    private static File getMarker(final File file) {
+        return new File(file.getPath() + PARTIAL_SUFFIX);
+    }
+
+    /** A table that is being written, see {@link #start(BufferedDataTable, ExecutionMonitor)}. */
+    private static final class Write implements Runnable {
+
+        private final File m_file;
+
+        /** Referenced until the write finished, see class comment. */
+        private BufferedDataTable m_table;
+
+        private final ExecutionMonitor m_exec;
+
+        private final CountDownLatch m_finished = new CountDownLatch(1);
+
+        /** The thread writing the table while the table is written, guarded by this. */
+        private Thread m_thread;
+
+        /** Guarded by this. */
+        private boolean m_canceled;
+
+        Write(final File file, final BufferedDataTable table, final ExecutionMonitor exec) {
+            m_file = file;
+            m_table = table;
+            m_exec = exec;
+        }
+
+        @Override
+        public void run() {
+            final boolean canceled;
+            synchronized (this) {
+                canceled = m_canceled;
+                m_thread = canceled ? null : Thread.currentThread();
+            }
+            try {
+                if (canceled) {
+                    CallWorkflowPayloadStore.discard(m_file);
+                } else {
+                    write();
+                }
+            } finally {
+                synchronized (this) {
+                    m_thread = null;
+                    // a cancellation that arrived after the write must not affect the next write on this thread
+                    Thread.interrupted(); // NOSONAR
+                }
+                m_table = null;
+                FileUtils.deleteQuietly(getMarker(m_file));
+                WRITES.remove(m_file.toURI(), this);
+                m_finished.countDown();
+            }
+        }
+
+        private void write() {
+            try (var out = new BufferedOutputStream(
+                new InterruptibleOutputStream(CallWorkflowPayloadStore.newOutputStream(m_file)), 1 << 16)) {
+                TableCallWorkflowPayload.writeChunked(m_table, ROWS_PER_CHUNK, out, m_exec);
+                out.flush();
+                CallWorkflowPayloadStore.written(m_file);
+            } catch (InterruptedIOException e) { // NOSONAR canceled via #cancel(URI)
+                LOGGER.debug("Writing table for callee workflow was canceled");
+                CallWorkflowPayloadStore.discard(m_file);
+            } catch (IOException | CanceledExecutionException | RuntimeException e) {
+                LOGGER.warn("Writing table for callee workflow failed: " + e.getMessage(), e);
+                CallWorkflowPayloadStore.discard(m_file);
+            }
+        }
+
+        void cancel() {
+            synchronized (this) {
+                m_canceled = true;
+                if (m_thread != null) {
+                    m_thread.interrupt();
+                }
+            }
+            // the write stops at the next chunk of bytes
+            Uninterruptibles.awaitUninterruptibly(m_finished);
+        }
+    }
+
+    /** Lets {@link #cancel(URI)} interrupt the write, file streams are not interruptible themselves. */
+    private static final class InterruptibleOutputStream extends FilterOutputStream {
+
+        InterruptibleOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException();
+            }
+            out.write(b, off, len);
+        }
+    }
+
+    private static final class GrowingFileInputStream extends InputStream {
+
+        private final FileInputStream m_in;
+
+        private final File m_marker;
+
+        GrowingFileInputStream(final FileInputStream in, final File marker) {
+            m_in = in;
+            m_marker = marker;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final var b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : (b[0] & 0xFF);
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            final var waitingSince = System.currentTimeMillis();
+            while (true) {
+                // check before reading, such that data written before the marker was removed is not missed
+                final var complete = !m_marker.exists();
+                final var read = m_in.read(b, off, len);
+                if (read > 0 || complete) {
+                    return read;
+                }
+                if (System.currentTimeMillis() - waitingSince > STALL_TIMEOUT_MILLIS) {
+                    throw new IOException("The table is not written any further, no rows have been written for "
+                        + TimeUnit.MILLISECONDS.toMinutes(STALL_TIMEOUT_MILLIS) + " minutes");
+                }
+                try {
+                    Thread.sleep(POLL_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for more rows");
+                }
+            }
+        }
+
+        @Override
+        public int available() throws IOException {
+            return m_in.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            m_in.close();
+        }
+    }
+}
@@ -20,21 +20,33 @@
  */
 package org.knime.workflowservices.knime.util;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Optional;
 import java.util.function.Consumer;
 
+import org.knime.core.data.DataTable;
+import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.container.ContainerTable;
 import org.knime.core.data.container.DataContainer;
+import org.knime.core.data.util.NonClosableInputStream;
+import org.knime.core.data.util.NonClosableOutputStream;
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.workflow.FlowVariable;
 import org.knime.core.node.workflow.virtual.AbstractPortObjectRepositoryNodeModel;
-import org.knime.core.util.FileUtil;
 
 /**
  *
@@ -42,10 +54,21 @@
  */
 final class TableCallWorkflowPayload implements CallWorkflowPayload {
 
+    /**
+     * Precedes payloads that are written in a {@link TablePayloadFormat} other than the default. The byte following the
+     * magic identifies the format. Payloads without header are in KNIME's table format (a zip file, hence starting with
+     * "PK"), as written by older versions.
+     */
+    private static final byte[] HEADER_MAGIC = {'K', 'W', 'F', 'T'};
+
     private final ContainerTable m_containerTable;
 
-    private TableCallWorkflowPayload(final ContainerTable containerTable) {
+    /** Whether the table has been copied from the payload rather than referring to the file it was read from. */
+    private final boolean m_copied;
+
+    private TableCallWorkflowPayload(final ContainerTable containerTable, final boolean copied) {
         m_containerTable = containerTable;
+        m_copied = copied;
     }
 
     @Override
@@ -64,9 +87,114 @@ public void close() {
         m_containerTable.close();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Each execution creates a new table from the container table read from the payload. Tables read directly from
+     * a local file in KNIME's table format still refer to that file and are not reusable.
+     */
+    @Override
+    public boolean isReusable() {
+        return m_copied;
+    }
+
+    /**
+     * @return the table read from the payload
+     */
+    ContainerTable getContainerTable() {
+        return m_containerTable;
+    }
+
     @SuppressWarnings("resource")
     static final TableCallWorkflowPayload createFrom(final InputStream input) throws IOException {
-        return new TableCallWorkflowPayload(DataContainer.readFromStream(input));
+        final var in = input.markSupported() ? input : new BufferedInputStream(input);
+        in.mark(HEADER_MAGIC.length);
+        final var magic = in.readNBytes(HEADER_MAGIC.length);
+        if (!Arrays.equals(magic, HEADER_MAGIC)) {
+            // no header, written in KNIME's table format
+            in.reset();
+            return new TableCallWorkflowPayload(DataContainer.readFromStream(in), true);
+        }
+        final var format = TablePayloadFormat.fromId(in.read());
+        if (format == TablePayloadFormat.ZIP) {
+            return new TableCallWorkflowPayload(DataContainer.readFromStream(in), true);
+        }
+        try (var rows = new DataInputStream(new BufferedInputStream(format.wrap(in)))) {
+            return new TableCallWorkflowPayload(RowTableCodec.read(rows), true);
+        }
+    }
+
+    /**
+     * Reads a table from a local file. Tables in KNIME's table format are read directly from the file rather than
+     * copied to a temporary file first, see {@link DataContainer#readFromZip(File)}.
+     */
+    @SuppressWarnings("resource")
+    static final TableCallWorkflowPayload createFrom(final File file) throws IOException {
+        if (StreamingTableTransfer.isBeingWritten(file)) {
+            // read the rows while they are written
+            try (var in = new BufferedInputStream(StreamingTableTransfer.open(file), 1 << 16)) {
+                return createFrom(in);
+            }
+        }
+        if (!hasHeader(file)) {
+            return new TableCallWorkflowPayload(DataContainer.readFromZip(file), false);
+        }
+        try (var in = new BufferedInputStream(Files.newInputStream(file.toPath()), 1 << 16)) {
+            return createFrom(in);
+        }
+    }
+
+    private static boolean hasHeader(final File file) throws IOException {
+        try (var in = Files.newInputStream(file.toPath())) {
+            return Arrays.equals(in.readNBytes(HEADER_MAGIC.length), HEADER_MAGIC);
+        }
+    }
+
+    /**
+     * Reads only the spec of a table payload in a local file, without reading the rows. Each format stores the spec
+     * separately from the rows: KNIME's table format in its own zip entry (the rows of a table read via
+     * {@link DataContainer#readFromZip(File)} are only read when the table is accessed), the other formats before
+     * the rows.
+     *
+     * @param file the file holding the payload
+     * @return the spec of the table, empty if it cannot be read separately
+     * @throws IOException if reading the file fails
+     */
+    static Optional<DataTableSpec> readSpec(final File file) throws IOException {
+        if (!StreamingTableTransfer.isBeingWritten(file) && !hasHeader(file)) {
+            final var table = DataContainer.readFromZip(file);
+            try {
+                return Optional.of(table.getDataTableSpec());
+            } finally {
+                table.close();
+            }
+        }
+        try (var in = new BufferedInputStream(StreamingTableTransfer.open(file))) {
+            return readSpec(in);
+        }
+    }
+
+    /**
+     * Reads only the spec of a table payload from a stream, which is possible for the formats that write the spec
+     * before the rows.
+     *
+     * @param in the stream of the payload, only its beginning is read
+     * @return the spec of the table, empty if the payload is in KNIME's table format, which stores the spec in a zip
+     *         entry that is not necessarily at the beginning of the stream
+     * @throws IOException if reading the stream fails
+     */
+    static Optional<DataTableSpec> readSpec(final InputStream in) throws IOException {
+        final var magic = in.readNBytes(HEADER_MAGIC.length);
+        if (!Arrays.equals(magic, HEADER_MAGIC)) {
+            return Optional.empty();
+        }
+        final var format = TablePayloadFormat.fromId(in.read());
+        if (format == TablePayloadFormat.ZIP) {
+            return Optional.empty();
+        }
+        try (var rows = new DataInputStream(format.wrap(new NonClosableInputStream(in)))) {
+            return Optional.of(RowTableCodec.readSpec(rows));
+        }
     }
 
     /**
@@ -75,9 +203,78 @@ static final TableCallWorkflowPayload createFrom(final InputStream input) throws
     static File writeTable(final ExecutionContext exec, final BufferedDataTable table)
         throws IOException, CanceledExecutionException {
         // BufferedDataTables are historically not port objects and have their own methods for persistence
-        var tempFile = FileUtil.createTempFile("external-node-input-", ".table", false);
-        DataContainer.writeToZip(table, tempFile, exec);
+        var tempFile =
+            CallWorkflowPayloadStore.createFile("external-node-input-", ".table", estimateSize(table));
+        try (var out = new BufferedOutputStream(CallWorkflowPayloadStore.newOutputStream(tempFile))) {
+            final var format = TablePayloadFormat.getConfigured();
+            if (format == TablePayloadFormat.ZIP || !RowTableCodec.isSupported(table.getDataTableSpec())) {
+                // the same content as written by DataContainer#writeToZip
+                DataContainer.writeToStream(table, new NonClosableOutputStream(out), exec);
+            } else {
+                write(table, table.size(), format, out, exec);
+            }
+        } catch (IOException | CanceledExecutionException | RuntimeException e) {
+            // do not leave partially written tables behind
+            CallWorkflowPayloadStore.discard(tempFile);
+            throw e;
+        }
+        CallWorkflowPayloadStore.written(tempFile);
         return tempFile;
     }
 
+    /**
+     * @return a rough estimate of the number of bytes written for the table, good enough to tell small tables apart
+     */
+    static long estimateSize(final BufferedDataTable table) {
+        final var cells = (double)table.size() * Math.max(1, table.getDataTableSpec().getNumColumns());
+        return (long)Math.min(Long.MAX_VALUE, cells * 16);
+    }
+
+    /**
+     * Writes a table with a header that records the format, such that {@link #createFrom(InputStream)} can read it.
+     *
+     * @param table the table to write, must be supported by the {@link RowTableCodec} unless the format is
+     *            {@link TablePayloadFormat#ZIP}
+     * @param rowCount the number of rows of the table, for progress reporting
+     * @param format the format in which to write the table
+     * @param out the stream to write to, not closed by this method
+     * @param exec for progress reporting and cancellation
+     * @throws IOException if writing fails
+     * @throws CanceledExecutionException if the execution was canceled
+     */
+    static void write(final DataTable table, final long rowCount, final TablePayloadFormat format,
+        final OutputStream out, final ExecutionMonitor exec) throws IOException, CanceledExecutionException {
+        out.write(HEADER_MAGIC);
+        out.write(format.getId());
+        if (format == TablePayloadFormat.ZIP) {
+            DataContainer.writeToStream(table, new NonClosableOutputStream(out), exec);
+        } else {
+            final var rows =
+                new DataOutputStream(new BufferedOutputStream(format.wrap(new NonClosableOutputStream(out))));
+            RowTableCodec.write(table, rowCount, rows, exec);
+            // finishes the compression, the underlying stream is left open
+            rows.close();
+        }
+    }
+
+    /**
+     * Writes a table in the {@link TablePayloadFormat#STORED} format and flushes the stream after each chunk of rows,
+     * see {@link StreamingTableTransfer}.
+     *
+     * @param table the table to write, must be supported by the {@link RowTableCodec}
+     * @param rowsPerChunk the number of rows after which the stream is flushed
+     * @param out the stream to write to, not closed by this method
+     * @param exec for progress reporting and cancellation
+     * @throws IOException if writing fails
+     * @throws CanceledExecutionException if the execution was canceled
+     */
+    static void writeChunked(final BufferedDataTable table, final int rowsPerChunk, final OutputStream out,
+        final ExecutionMonitor exec) throws IOException, CanceledExecutionException {
+        out.write(HEADER_MAGIC);
+        out.write(TablePayloadFormat.STORED.getId());
+        final var rows = new DataOutputStream(new NonClosableOutputStream(out));
+        RowTableCodec.write(table, table.size(), rowsPerChunk, rows, exec);
+        rows.flush();
+    }
+
 }
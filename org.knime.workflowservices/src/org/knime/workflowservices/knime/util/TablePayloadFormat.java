@@ -0,0 +1,175 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.workflowservices.knime.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.knime.core.node.NodeLogger;
+
+/**
+ * The formats in which tables are written when they are exchanged with a callee workflow, i.e., by the Call Workflow
+ * Service node for the Workflow Input nodes and by the Workflow Output nodes for the caller. The format is selected
+ * with the system property {@value #PROPERTY_TABLE_PAYLOAD_FORMAT} and recorded in the payload, the reading side
+ * handles all formats.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public enum TablePayloadFormat {
+
+        /**
+         * KNIME's table format, as written by {@link org.knime.core.data.container.DataContainer#writeToZip}. This is
+         * the default; payloads in this format have no header such that older versions can read them.
+         */
+        ZIP(0),
+
+        /** The rows are written without compression, for fast local disks. */
+        STORED(1),
+
+        /** The rows are compressed with the fastest deflate level, trading payload size for speed. */
+        FAST(2);
+
+    /**
+     * System property to select the format in which tables are written, one of {@code ZIP}, {@code STORED}, and
+     * {@code FAST}. Defaults to {@code ZIP}. Tables with columns other than strings, integers, longs, doubles, and
+     * booleans are always written as {@code ZIP}.
+     */
+    public static final String PROPERTY_TABLE_PAYLOAD_FORMAT = "knime.workflowservices.tablePayloadFormat";
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(TablePayloadFormat.class);
+
+    private final int m_id;
+
+    TablePayloadFormat(final int id) {
+        m_id = id;
+    }
+
+    /**
+     * @return the identifier of the format in the payload header
+     */
+    int getId() {
+        return m_id;
+    }
+
+    /**
+     * @param id as returned by {@link #getId()}
+     * @return the format with the given identifier
+     * @throws IOException if the identifier is unknown, e.g., because the payload was written by a newer version
+     */
+    static TablePayloadFormat fromId(final int id) throws IOException {
+        for (var format : values()) {
+            if (format.m_id == id) {
+                return format;
+            }
+        }
+        throw new IOException("Unsupported table payload format (" + id + ")");
+    }
+
+    /**
+     * @return the format selected via {@link #PROPERTY_TABLE_PAYLOAD_FORMAT}
+     */
+    static TablePayloadFormat getConfigured() {
+        final var value = System.getProperty(PROPERTY_TABLE_PAYLOAD_FORMAT);
+        if (value == null || value.isBlank()) {
+            return ZIP;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) { // NOSONAR
+            LOGGER.warnWithFormat("Unknown table payload format \"%s\" in system property %s, using %s.", value,
+                PROPERTY_TABLE_PAYLOAD_FORMAT, ZIP);
+            return ZIP;
+        }
+    }
+
+    /**
+     * @param out the stream to write the rows to
+     * @return the stream that applies the compression of this format, closing it closes the given stream
+     */
+    OutputStream wrap(final OutputStream out) {
+        if (this == FAST) {
+            final var deflater = new Deflater(Deflater.BEST_SPEED);
+            return new DeflaterOutputStream(out, deflater, 1 << 16) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        deflater.end();
+                    }
+                }
+            };
+        }
+        return out;
+    }
+
+    /**
+     * @param in the stream to read the rows from
+     * @return the stream that reverses the compression of this format, closing it closes the given stream
+     */
+    InputStream wrap(final InputStream in) {
+        if (this == FAST) {
+            final var inflater = new Inflater();
+            return new InflaterInputStream(in, inflater, 1 << 16) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        inflater.end();
+                    }
+                }
+            };
+        }
+        return in;
+    }
+}